@@ -0,0 +1,7 @@
+package com.ecommerce.analytics;
+
+public enum Dimension {
+    TOTAL,
+    CATEGORY,
+    PAYMENT_METHOD
+}
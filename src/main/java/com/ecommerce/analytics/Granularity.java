@@ -0,0 +1,23 @@
+package com.ecommerce.analytics;
+
+public enum Granularity {
+    MINUTE(60, 24 * 60),
+    HOUR(60 * 60, 30 * 24 + 1),
+    DAY(24 * 60 * 60, 31);
+
+    private final long seconds;
+    private final int slots;
+
+    Granularity(long seconds, int slots) {
+        this.seconds = seconds;
+        this.slots = slots;
+    }
+
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+}
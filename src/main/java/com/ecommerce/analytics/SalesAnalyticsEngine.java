@@ -0,0 +1,333 @@
+package com.ecommerce.analytics;
+
+import com.ecommerce.dto.SalesAnalyticsDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// In-process sales analytics: revenue, orders and units per minute/hour/day, overall and per category and
+// payment method. Revenue and units are booked when a payment completes and booked back, as negative
+// sales, when it is refunded. Orders are counted when placed and dropped again if cancelled; per payment
+// method, which is only known once paid, they follow the payment instead.
+// Built from the database at startup and rebuilt periodically, so every node shows the sales of all nodes
+// and nothing is lost with a node. Between rebuilds this node applies its own changes after commit.
+@Component
+public class SalesAnalyticsEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsEngine.class);
+
+    public static final String TOTAL_KEY = "all";
+    public static final String UNCATEGORIZED_KEY = "none";
+
+    private static final Set<Payment.PaymentStatus> PAID_STATUSES = Set.of(
+            Payment.PaymentStatus.COMPLETED, Payment.PaymentStatus.REFUNDING, Payment.PaymentStatus.REFUNDED);
+
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+
+    public SalesAnalyticsEngine(OrderItemRepository orderItemRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // The hooks must run inside the transaction that makes the change; counters move only after it commits
+    public void onOrderCreated(Order order) {
+        applyAfterCommit(orderSales(categoryKeys(order), 1), order.getCreatedAt());
+    }
+
+    // Must be called while the orders are still attached, their items are loaded in batches
+    public void onOrdersCancelled(Collection<Order> orders) {
+        for (Order order : orders) {
+            applyAfterCommit(orderSales(categoryKeys(order), -1), order.getCreatedAt());
+        }
+    }
+
+    public void onPaymentCompleted(Payment payment) {
+        applyAfterCommit(paymentSales(payment.getPaymentMethod(), toCents(payment.getAmount()),
+                categorySales(payment), 1), payment.getPaidAt());
+    }
+
+    // Refunds are booked as negative sales at refund time, not by rewriting the original buckets
+    public void onPaymentRefunded(Payment payment) {
+        applyAfterCommit(paymentSales(payment.getPaymentMethod(), toCents(payment.getAmount()),
+                categorySales(payment), -1), payment.getRefundedAt());
+    }
+
+    public SalesAnalyticsDto getSeries(Dimension dimension, String key, Granularity granularity,
+                                       LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        long[] range = clampedRange(granularity, from, to);
+        Series current = series.get(new SeriesKey(dimension, key));
+
+        List<TimeBucketRing.Bucket> buckets = current == null || range[0] > range[1]
+                ? List.of()
+                : current.ring(granularity).range(range[0], range[1]);
+
+        long revenue = 0;
+        long orders = 0;
+        long units = 0;
+        List<SalesAnalyticsDto.Point> points = new ArrayList<>(buckets.size());
+        for (TimeBucketRing.Bucket bucket : buckets) {
+            revenue += bucket.revenueCents();
+            orders += bucket.orders();
+            units += bucket.units();
+            points.add(new SalesAnalyticsDto.Point(bucketStart(granularity, bucket.bucketId()),
+                    toAmount(bucket.revenueCents()), bucket.orders(), bucket.units()));
+        }
+
+        return new SalesAnalyticsDto(dimension, key, granularity, from, to,
+                new SalesAnalyticsDto.Totals(toAmount(revenue), orders, units), points);
+    }
+
+    public SalesAnalyticsDto.Breakdown getBreakdown(Dimension dimension, Granularity granularity,
+                                                    LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        long[] range = clampedRange(granularity, from, to);
+
+        List<SalesAnalyticsDto.BreakdownEntry> entries = new ArrayList<>();
+        if (range[0] <= range[1]) {
+            series.forEach((seriesKey, current) -> {
+                if (seriesKey.dimension() == dimension) {
+                    TimeBucketRing.Bucket sum = current.ring(granularity).sum(range[0], range[1]);
+                    entries.add(new SalesAnalyticsDto.BreakdownEntry(seriesKey.key(),
+                            new SalesAnalyticsDto.Totals(toAmount(sum.revenueCents()), sum.orders(), sum.units())));
+                }
+            });
+        }
+        entries.sort(Comparator.comparing((SalesAnalyticsDto.BreakdownEntry entry) -> entry.totals().revenue())
+                .reversed());
+
+        return new SalesAnalyticsDto.Breakdown(dimension, granularity, from, to, entries);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    // Increments racing a rebuild can be lost or counted twice; the next rebuild corrects them
+    @Scheduled(fixedDelayString = "${app.analytics.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.analytics.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        try {
+            Map<SeriesKey, Series> rebuilt = new ConcurrentHashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = oldestRetained(now);
+
+            Integer orders = readOnlyTransaction.execute(status -> {
+                try (Stream<OrderItemRepository.OrderCategorySalesView> rows =
+                             orderItemRepository.streamSalesByOrderAndCategorySince(since)) {
+                    List<OrderItemRepository.OrderCategorySalesView> orderRows = new ArrayList<>();
+                    int count = 0;
+                    Iterator<OrderItemRepository.OrderCategorySalesView> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        OrderItemRepository.OrderCategorySalesView row = iterator.next();
+                        // Rows arrive grouped by order; book each order once all its categories are in
+                        if (!orderRows.isEmpty() && !orderRows.getFirst().getOrderId().equals(row.getOrderId())) {
+                            book(rebuilt, orderRows, now);
+                            orderRows.clear();
+                            count++;
+                        }
+                        orderRows.add(row);
+                    }
+                    if (!orderRows.isEmpty()) {
+                        book(rebuilt, orderRows, now);
+                        count++;
+                    }
+                    return count;
+                }
+            });
+
+            series = rebuilt;
+            log.debug("Rebuilt sales analytics from {} orders since {}", orders, since);
+        } catch (RuntimeException ex) {
+            log.warn("Sales analytics rebuild failed, keeping the previous figures", ex);
+        }
+    }
+
+    private static void book(Map<SeriesKey, Series> target, List<OrderItemRepository.OrderCategorySalesView> rows,
+                             LocalDateTime now) {
+        OrderItemRepository.OrderCategorySalesView order = rows.getFirst();
+        List<CategorySale> categories = rows.stream()
+                .map(row -> new CategorySale(categoryKey(row.getCategoryId()), row.getQuantity(), toCents(row.getAmount())))
+                .toList();
+
+        if (order.getOrderStatus() != Order.OrderStatus.CANCELLED) {
+            apply(target, orderSales(categories.stream().map(CategorySale::key).toList(), 1), order.getCreatedAt(), now);
+        }
+        if (order.getPaidAt() != null && PAID_STATUSES.contains(order.getPaymentStatus())) {
+            apply(target, paymentSales(order.getPaymentMethod(), toCents(order.getPaymentAmount()), categories, 1),
+                    order.getPaidAt(), now);
+        }
+        if (order.getRefundedAt() != null && order.getPaymentStatus() == Payment.PaymentStatus.REFUNDED) {
+            apply(target, paymentSales(order.getPaymentMethod(), toCents(order.getPaymentAmount()), categories, -1),
+                    order.getRefundedAt(), now);
+        }
+    }
+
+    private List<CategorySale> categorySales(Payment payment) {
+        return orderItemRepository.sumByCategoryForOrder(payment.getOrder().getId()).stream()
+                .map(row -> new CategorySale(categoryKey(row.getCategoryId()), row.getQuantity(), toCents(row.getAmount())))
+                .toList();
+    }
+
+    private static List<String> categoryKeys(Order order) {
+        return order.getOrderItems().stream()
+                .map(OrderItem::getProduct)
+                .map(product -> categoryKey(product.getCategory() != null ? product.getCategory().getId() : null))
+                .distinct()
+                .toList();
+    }
+
+    private static List<Sale> orderSales(Collection<String> categoryKeys, int sign) {
+        List<Sale> sales = new ArrayList<>();
+        for (String categoryKey : categoryKeys) {
+            sales.add(new Sale(new SeriesKey(Dimension.CATEGORY, categoryKey), 0, sign, 0));
+        }
+        sales.add(new Sale(new SeriesKey(Dimension.TOTAL, TOTAL_KEY), 0, sign, 0));
+        return sales;
+    }
+
+    private static List<Sale> paymentSales(Payment.PaymentMethod method, long amountCents,
+                                           Collection<CategorySale> categories, int sign) {
+        List<Sale> sales = new ArrayList<>();
+        long totalUnits = 0;
+        for (CategorySale category : categories) {
+            sales.add(new Sale(new SeriesKey(Dimension.CATEGORY, category.key()),
+                    sign * category.amountCents(), 0, sign * category.units()));
+            totalUnits += category.units();
+        }
+        sales.add(new Sale(new SeriesKey(Dimension.TOTAL, TOTAL_KEY), sign * amountCents, 0, sign * totalUnits));
+        sales.add(new Sale(new SeriesKey(Dimension.PAYMENT_METHOD, method.name()),
+                sign * amountCents, sign, sign * totalUnits));
+        return sales;
+    }
+
+    private void applyAfterCommit(List<Sale> sales, LocalDateTime at) {
+        LocalDateTime bookedAt = at != null ? at : LocalDateTime.now();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(series, sales, bookedAt, LocalDateTime.now());
+                }
+            });
+        } else {
+            apply(series, sales, bookedAt, LocalDateTime.now());
+        }
+    }
+
+    private static void apply(Map<SeriesKey, Series> target, List<Sale> sales, LocalDateTime at, LocalDateTime now) {
+        for (Sale sale : sales) {
+            Series current = target.computeIfAbsent(sale.key(), k -> new Series());
+            for (Granularity granularity : Granularity.values()) {
+                long bucketId = bucketId(granularity, at);
+                // Rebuilds also read orders whose other timestamps fall outside this ring's window
+                if (bucketId > bucketId(granularity, now) - granularity.getSlots()) {
+                    current.ring(granularity).add(bucketId, sale.revenueCents(), sale.orders(), sale.units());
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime oldestRetained(LocalDateTime now) {
+        LocalDateTime oldest = now;
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime start = bucketStart(granularity, bucketId(granularity, now) - granularity.getSlots() + 1);
+            if (start.isBefore(oldest)) {
+                oldest = start;
+            }
+        }
+        return oldest;
+    }
+
+    private static String categoryKey(Long categoryId) {
+        return categoryId != null ? categoryId.toString() : UNCATEGORIZED_KEY;
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+    }
+
+    private static long[] clampedRange(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        long newest = bucketId(granularity, LocalDateTime.now());
+        long oldest = newest - granularity.getSlots() + 1;
+        return new long[] {
+                Math.max(bucketId(granularity, from), oldest),
+                Math.min(bucketId(granularity, to), newest)
+        };
+    }
+
+    // Buckets are cut on local wall-clock time (treated as UTC), so DAY buckets start at local midnight
+    private static long bucketId(Granularity granularity, LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), granularity.getSeconds());
+    }
+
+    private static LocalDateTime bucketStart(Granularity granularity, long bucketId) {
+        return LocalDateTime.ofEpochSecond(bucketId * granularity.getSeconds(), 0, ZoneOffset.UTC);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static final class Series {
+
+        private final Map<Granularity, TimeBucketRing> rings = new EnumMap<>(Granularity.class);
+
+        Series() {
+            for (Granularity granularity : Granularity.values()) {
+                rings.put(granularity, new TimeBucketRing(granularity));
+            }
+        }
+
+        TimeBucketRing ring(Granularity granularity) {
+            return rings.get(granularity);
+        }
+    }
+
+    private record SeriesKey(Dimension dimension, String key) {
+    }
+
+    private record Sale(SeriesKey key, long revenueCents, long orders, long units) {
+    }
+
+    private record CategorySale(String key, long units, long amountCents) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Fixed-size ring of time buckets: slot = bucketId % slots, and a slot is reset when a newer bucket claims it,
+// so memory stays constant and old data falls off without a cleanup pass.
+class TimeBucketRing {
+
+    private final long[] bucketIds;
+    private final long[] revenueCents;
+    private final long[] orders;
+    private final long[] units;
+
+    TimeBucketRing(Granularity granularity) {
+        int slots = granularity.getSlots();
+        this.bucketIds = new long[slots];
+        this.revenueCents = new long[slots];
+        this.orders = new long[slots];
+        this.units = new long[slots];
+        Arrays.fill(bucketIds, -1);
+    }
+
+    synchronized void add(long bucketId, long revenueCents, long orders, long units) {
+        int slot = slotOf(bucketId);
+        if (bucketIds[slot] > bucketId) {
+            return;
+        }
+        if (bucketIds[slot] < bucketId) {
+            bucketIds[slot] = bucketId;
+            this.revenueCents[slot] = 0;
+            this.orders[slot] = 0;
+            this.units[slot] = 0;
+        }
+        this.revenueCents[slot] += revenueCents;
+        this.orders[slot] += orders;
+        this.units[slot] += units;
+    }
+
+    synchronized List<Bucket> range(long fromBucketId, long toBucketId) {
+        List<Bucket> buckets = new ArrayList<>((int) Math.max(0, toBucketId - fromBucketId + 1));
+        for (long bucketId = fromBucketId; bucketId <= toBucketId; bucketId++) {
+            int slot = slotOf(bucketId);
+            buckets.add(bucketIds[slot] == bucketId
+                    ? new Bucket(bucketId, revenueCents[slot], orders[slot], units[slot])
+                    : new Bucket(bucketId, 0, 0, 0));
+        }
+        return buckets;
+    }
+
+    synchronized Bucket sum(long fromBucketId, long toBucketId) {
+        long revenue = 0;
+        long orderCount = 0;
+        long unitCount = 0;
+        for (long bucketId = fromBucketId; bucketId <= toBucketId; bucketId++) {
+            int slot = slotOf(bucketId);
+            if (bucketIds[slot] == bucketId) {
+                revenue += revenueCents[slot];
+                orderCount += orders[slot];
+                unitCount += units[slot];
+            }
+        }
+        return new Bucket(fromBucketId, revenue, orderCount, unitCount);
+    }
+
+    private int slotOf(long bucketId) {
+        return (int) Math.floorMod(bucketId, (long) bucketIds.length);
+    }
+
+    record Bucket(long bucketId, long revenueCents, long orders, long units) {
+    }
+}
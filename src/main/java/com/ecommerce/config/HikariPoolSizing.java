@@ -0,0 +1,58 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Sizes the Hikari pools from the core count, (cores * connections-per-core) + spare-connections, the
+// PostgreSQL rule of thumb, unless max-size pins it. The read replica pool has its own settings under
+// app.datasource.replica.pool, defaulting to the primary's, since it serves different traffic against a
+// server with its own max_connections. Pools are fixed size (minimumIdle = maximum) so a burst never
+// waits on new connections being opened. The rule of thumb is a starting point that has not been load
+// tested here.
+@Component
+@ConditionalOnProperty(name = "app.datasource.pool.connections-per-core")
+public class HikariPoolSizing implements BeanPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(HikariPoolSizing.class);
+
+    // Pool name given by ReplicaDataSourceConfig
+    private static final String REPLICA_POOL = "replica";
+
+    private final int primaryPoolSize;
+    private final int replicaPoolSize;
+
+    public HikariPoolSizing(
+            @Value("${app.datasource.pool.connections-per-core}") int connectionsPerCore,
+            @Value("${app.datasource.pool.spare-connections:1}") int spareConnections,
+            @Value("${app.datasource.pool.max-size:0}") int maxSize,
+            @Value("${app.datasource.replica.pool.connections-per-core:${app.datasource.pool.connections-per-core}}")
+            int replicaConnectionsPerCore,
+            @Value("${app.datasource.replica.pool.spare-connections:${app.datasource.pool.spare-connections:1}}")
+            int replicaSpareConnections,
+            @Value("${app.datasource.replica.pool.max-size:0}") int replicaMaxSize) {
+        this.primaryPoolSize = poolSize(connectionsPerCore, spareConnections, maxSize);
+        this.replicaPoolSize = poolSize(replicaConnectionsPerCore, replicaSpareConnections, replicaMaxSize);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            int poolSize = REPLICA_POOL.equals(dataSource.getPoolName()) ? replicaPoolSize : primaryPoolSize;
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMinimumIdle(poolSize);
+            log.info("Sized connection pool {} to {} connections", beanName, poolSize);
+        }
+        return bean;
+    }
+
+    private static int poolSize(int connectionsPerCore, int spareConnections, int maxSize) {
+        return maxSize > 0
+                ? maxSize
+                : Runtime.getRuntime().availableProcessors() * connectionsPerCore + spareConnections;
+    }
+}
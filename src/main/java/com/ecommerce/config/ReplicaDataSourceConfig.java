@@ -0,0 +1,95 @@
+package com.ecommerce.config;
+
+import com.ecommerce.datasource.ReadYourWritesTracker;
+import com.ecommerce.datasource.ReplicaLagMonitor;
+import com.ecommerce.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Enabled by app.datasource.replica.url. Replaces the auto-configured data source with a lazy proxy over
+// the primary pool whose read-only transactions (@Transactional(readOnly = true), and Spring Data's
+// default read methods) take their connection from the replica instead. The connection is only fetched
+// once the transaction's read-only flag is known, which is what makes routing work under JPA.
+// Locally: point the replica at a second H2 database with the same schema (e.g. jdbc:h2:tcp://...).
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(Environment environment) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("primary");
+        dataSource.setJdbcUrl(environment.getRequiredProperty("spring.datasource.url"));
+        dataSource.setUsername(environment.getProperty("spring.datasource.username"));
+        dataSource.setPassword(environment.getProperty("spring.datasource.password"));
+        String driverClassName = environment.getProperty("spring.datasource.driver-class-name");
+        if (driverClassName != null) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        return dataSource;
+    }
+
+    // Shares the primary's credentials and driver unless the replica overrides them; pool settings
+    // are bound from app.datasource.replica.hikari
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setJdbcUrl(environment.getRequiredProperty("app.datasource.replica.url"));
+        dataSource.setUsername(environment.getProperty("app.datasource.replica.username",
+                environment.getProperty("spring.datasource.username")));
+        dataSource.setPassword(environment.getProperty("app.datasource.replica.password",
+                environment.getProperty("spring.datasource.password")));
+        String driverClassName = environment.getProperty("app.datasource.replica.driver-class-name",
+                environment.getProperty("spring.datasource.driver-class-name"));
+        if (driverClassName != null) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, Duration.ofMillis(maxLagMs), meterRegistry);
+    }
+
+    // Registered with the transaction manager as an execution listener
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.datasource.replica.sticky-ms:5000}") long stickyMs,
+            @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        // A write must stay visible for at least as long as the replica may lag behind it
+        return new ReadYourWritesTracker(Duration.ofMillis(Math.max(stickyMs, maxLagMs)));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                replicaLagMonitor, readYourWritesTracker, meterRegistry));
+        return dataSource;
+    }
+}
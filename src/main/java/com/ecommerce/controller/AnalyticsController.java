@@ -0,0 +1,50 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.analytics.Dimension;
+import com.ecommerce.analytics.Granularity;
+import com.ecommerce.analytics.SalesAnalyticsEngine;
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.SalesAnalyticsDto;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+
+    public AnalyticsController(SalesAnalyticsEngine salesAnalyticsEngine) {
+        this.salesAnalyticsEngine = salesAnalyticsEngine;
+    }
+
+    @GetMapping("/sales")
+    public ResponseEntity<ApiResponse<SalesAnalyticsDto>> getSalesSeries(
+            @RequestParam(defaultValue = "TOTAL") Dimension dimension,
+            @RequestParam(defaultValue = SalesAnalyticsEngine.TOTAL_KEY) String key,
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        SalesAnalyticsDto series = salesAnalyticsEngine.getSeries(dimension, key, granularity, start, end);
+        return ResponseEntity.ok(ApiResponse.success(series));
+    }
+
+    @GetMapping("/sales/breakdown")
+    public ResponseEntity<ApiResponse<SalesAnalyticsDto.Breakdown>> getSalesBreakdown(
+            @RequestParam Dimension dimension,
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        SalesAnalyticsDto.Breakdown breakdown = salesAnalyticsEngine.getBreakdown(dimension, granularity, start, end);
+        return ResponseEntity.ok(ApiResponse.success(breakdown));
+    }
+}
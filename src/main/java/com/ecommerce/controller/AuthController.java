@@ -2,7 +2,10 @@ package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.UserDto;
+import com.ecommerce.entity.User;
 import com.ecommerce.security.JwtTokenProvider;
+import com.ecommerce.security.UserPrincipal;
+import com.ecommerce.service.RefreshTokenService;
 import com.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -20,13 +23,16 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final UserService userService;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthController(AuthenticationManager authenticationManager,
                           JwtTokenProvider tokenProvider,
-                          UserService userService) {
+                          UserService userService,
+                          RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.userService = userService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @PostMapping("/login")
@@ -39,12 +45,31 @@ public class AuthController {
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         String token = tokenProvider.generateToken(authentication);
-        UserDto user = userService.getUserByEmail(request.email());
+        User user = userService.getUserEntityByEmail(request.email());
+        RefreshTokenService.IssuedToken refreshToken = refreshTokenService.issue(user);
 
-        UserDto.LoginResponse response = new UserDto.LoginResponse(token, user);
+        UserDto.LoginResponse response = new UserDto.LoginResponse(token, tokenProvider.getExpirationMs(),
+                refreshToken.token(), refreshToken.expiresAt(), UserDto.fromEntity(user));
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<UserDto.TokenResponse>> refresh(
+            @Valid @RequestBody UserDto.RefreshRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refreshToken());
+        String token = tokenProvider.generateToken(UserPrincipal.create(rotation.user()));
+
+        UserDto.TokenResponse response = new UserDto.TokenResponse(token, tokenProvider.getExpirationMs(),
+                rotation.refreshToken().token(), rotation.refreshToken().expiresAt());
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@Valid @RequestBody UserDto.RefreshRequest request) {
+        refreshTokenService.revoke(request.refreshToken());
+        return ResponseEntity.ok(ApiResponse.success("Logout successful", null));
+    }
+
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<UserDto>> register(
             @Valid @RequestBody UserDto.CreateRequest request) {
@@ -0,0 +1,32 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.CacheStatsDto;
+import com.ecommerce.service.CacheStatisticsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(cacheStatisticsService.getCacheStats()));
+    }
+
+    // Evicts this node's entity, collection and query caches, e.g. after editing catalogue data in SQL
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Void>> evictAll() {
+        cacheStatisticsService.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Second-level cache evicted", null));
+    }
+}
@@ -1,22 +1,28 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.ApiResponse;
+import com.ecommerce.dto.DailySalesStatsDto;
 import com.ecommerce.dto.OrderDto;
 import com.ecommerce.dto.PageResponse;
 import com.ecommerce.entity.Order;
 import com.ecommerce.security.CurrentUser;
 import com.ecommerce.security.UserPrincipal;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,9 +31,11 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final ExportService exportService;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ExportService exportService) {
         this.orderService = orderService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -39,14 +47,14 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @securityService.isOrderOwner(#id)")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.canReadOrder(#id)")
     public ResponseEntity<ApiResponse<OrderDto>> getOrderById(@PathVariable Long id) {
         OrderDto order = orderService.getOrderById(id);
         return ResponseEntity.ok(ApiResponse.success(order));
     }
 
     @GetMapping("/number/{orderNumber}")
-    @PreAuthorize("hasRole('ADMIN') or @securityService.isOrderOwnerByNumber(#orderNumber)")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.canReadOrderByNumber(#orderNumber)")
     public ResponseEntity<ApiResponse<OrderDto>> getOrderByOrderNumber(@PathVariable String orderNumber) {
         OrderDto order = orderService.getOrderByOrderNumber(orderNumber);
         return ResponseEntity.ok(ApiResponse.success(order));
@@ -61,9 +69,10 @@ public class OrderController {
     }
 
     @GetMapping("/my-orders/summary")
-    public ResponseEntity<ApiResponse<List<OrderDto.OrderSummary>>> getMyOrderSummaries(
-            @CurrentUser UserPrincipal currentUser) {
-        List<OrderDto.OrderSummary> summaries = orderService.getUserOrderSummaries(currentUser.getId());
+    public ResponseEntity<ApiResponse<PageResponse<OrderDto.OrderSummary>>> getMyOrderSummaries(
+            @CurrentUser UserPrincipal currentUser,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        PageResponse<OrderDto.OrderSummary> summaries = orderService.getUserOrderSummaries(currentUser.getId(), pageable);
         return ResponseEntity.ok(ApiResponse.success(summaries));
     }
 
@@ -110,6 +119,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully", order));
     }
 
+    @PostMapping("/bulk-cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderDto.BulkCancelResponse>> cancelOrders(
+            @Valid @RequestBody OrderDto.BulkCancelRequest request) {
+        OrderDto.BulkCancelResponse response = orderService.cancelOrders(request.orderIds());
+        return ResponseEntity.ok(ApiResponse.success("Orders cancelled successfully", response));
+    }
+
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<OrderDto>>> getOrdersByDateRange(
@@ -119,10 +136,35 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        StreamingResponseBody body = outputStream -> exportService.exportOrders(startDate, endDate, format, outputStream);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("orders." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
     @GetMapping("/stats/count/{status}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Long>> countOrdersByStatus(@PathVariable Order.OrderStatus status) {
         long count = orderService.countOrdersByStatus(status);
         return ResponseEntity.ok(ApiResponse.success(count));
     }
+
+    @GetMapping("/stats/daily")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<DailySalesStatsDto>>> getDailySalesStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<DailySalesStatsDto> stats = orderService.getDailySalesStats(startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
 }
@@ -4,16 +4,20 @@ import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.PageResponse;
 import com.ecommerce.dto.PaymentDto;
 import com.ecommerce.entity.Payment;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,9 +28,11 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ExportService exportService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, ExportService exportService) {
         this.paymentService = paymentService;
+        this.exportService = exportService;
     }
 
     @GetMapping("/{id}")
@@ -81,7 +87,10 @@ public class PaymentController {
             @PathVariable Long id,
             @Valid @RequestBody PaymentDto.RefundRequest request) {
         PaymentDto payment = paymentService.refundPayment(id, request);
-        return ResponseEntity.ok(ApiResponse.success("Payment refunded", payment));
+        String message = payment.status() == Payment.PaymentStatus.REFUNDED
+                ? "Payment refunded"
+                : "Refund submitted, awaiting confirmation from the payment provider";
+        return ResponseEntity.ok(ApiResponse.success(message, payment));
     }
 
     @PostMapping("/{id}/cancel")
@@ -100,6 +109,22 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        StreamingResponseBody body = outputStream -> exportService.exportPayments(startDate, endDate, format, outputStream);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("payments." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
     @GetMapping("/stats/total")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<BigDecimal>> getTotalCompletedPayments() {
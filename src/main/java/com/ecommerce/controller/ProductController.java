@@ -3,16 +3,28 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.ApiResponse;
 import com.ecommerce.dto.PageResponse;
 import com.ecommerce.dto.ProductDto;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.image.ImageResponseWriter;
+import com.ecommerce.image.ImageStorage;
+import com.ecommerce.image.OpenedImage;
+import com.ecommerce.image.ThumbnailService;
+import com.ecommerce.service.BestSellerService;
 import com.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -21,9 +33,19 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
-
-    public ProductController(ProductService productService) {
+    private final BestSellerService bestSellerService;
+    private final ImageStorage imageStorage;
+    private final ImageResponseWriter imageResponseWriter;
+    private final ThumbnailService thumbnailService;
+
+    public ProductController(ProductService productService, BestSellerService bestSellerService,
+                             ImageStorage imageStorage, ImageResponseWriter imageResponseWriter,
+                             ThumbnailService thumbnailService) {
         this.productService = productService;
+        this.bestSellerService = bestSellerService;
+        this.imageStorage = imageStorage;
+        this.imageResponseWriter = imageResponseWriter;
+        this.thumbnailService = thumbnailService;
     }
 
     @GetMapping
@@ -47,6 +69,25 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(product));
     }
 
+    @GetMapping("/images/{name}")
+    public void getImage(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ImageStorage.StoredImage image = imageStorage.find(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "name", name));
+        imageResponseWriter.write(image, request, response);
+    }
+
+    @GetMapping("/images/{name}/thumbnail")
+    public void getThumbnail(@PathVariable String name,
+                             @RequestParam(defaultValue = "256") int width,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageStorage.StoredImage image = imageStorage.find(name)
+                .orElseThrow(() -> new ResourceNotFoundException("Image", "name", name));
+        try (OpenedImage thumbnail = thumbnailService.open(image, width)) {
+            imageResponseWriter.write(thumbnail, request, response);
+        }
+    }
+
     @GetMapping("/sku/{sku}")
     public ResponseEntity<ApiResponse<ProductDto>> getProductBySku(@PathVariable String sku) {
         ProductDto product = productService.getProductBySku(sku);
@@ -67,6 +108,15 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
+    @GetMapping("/best-sellers")
+    public ResponseEntity<ApiResponse<List<ProductDto.BestSeller>>> getBestSellers(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "WEEK") BestSellerService.Window window,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductDto.BestSeller> bestSellers = bestSellerService.getBestSellers(categoryId, window, limit);
+        return ResponseEntity.ok(ApiResponse.success(bestSellers));
+    }
+
     @GetMapping("/in-stock")
     public ResponseEntity<ApiResponse<PageResponse<ProductDto>>> getInStockProducts(
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
@@ -108,6 +158,19 @@ public class ProductController {
                 .body(ApiResponse.success("Product created successfully", product));
     }
 
+    @PostMapping(value = "/{id}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
+    public ResponseEntity<ApiResponse<ProductDto>> uploadImage(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean primary) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            ProductDto product = productService.addImage(id, content, primary);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Image uploaded successfully", product));
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
     public ResponseEntity<ApiResponse<ProductDto>> updateProduct(
@@ -0,0 +1,61 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.security.UserPrincipal;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// After a user commits a write (cart, order, payment, profile...), their reads stay on the primary for a
+// while so they never see the replica's older state, e.g. an empty order list right after checkout.
+// Registered as a transaction execution listener; background jobs have no user and are not tracked.
+// Stickiness is per node: only the instance that committed the write remembers it, so behind a load
+// balancer without session affinity the user's next request can reach a node that still reads the replica.
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final long stickyNanos;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration stickyFor) {
+        this.stickyNanos = stickyFor.toNanos();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        Long userId = currentUserId();
+        if (userId != null) {
+            stickyUntil.put(userId, System.nanoTime() + stickyNanos);
+        }
+    }
+
+    public boolean isCurrentUserSticky() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.sticky-ms:5000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+}
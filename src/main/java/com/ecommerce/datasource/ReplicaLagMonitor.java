@@ -0,0 +1,82 @@
+package com.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+// Polls the replica and decides whether reads may go there. Without a lag query (e.g. two local H2
+// databases) only reachability is checked. Starts unavailable, so reads use the primary until the
+// first successful check.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+
+    private volatile boolean available;
+    private volatile long lagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLag.toMillis();
+
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagMs)
+                .description("Replication lag of the read replica in milliseconds, -1 when unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("db.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    // Called when handing out a replica connection failed, so reads fall back before the next check
+    public void markUnavailable() {
+        available = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}",
+            initialDelayString = "${app.datasource.replica.lag-check-initial-delay-ms:0}")
+    public void check() {
+        boolean wasAvailable = available;
+        try (Connection connection = replica.getConnection()) {
+            lagMs = StringUtils.hasText(lagQuery) ? queryLag(connection) : 0;
+            available = lagMs <= maxLagMs;
+        } catch (SQLException | RuntimeException ex) {
+            lagMs = -1;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Read replica check failed, reads go to the primary", ex);
+            }
+            return;
+        }
+        if (wasAvailable != available) {
+            log.info("Read replica {} (lag {} ms, limit {} ms)", available ? "in use" : "skipped", lagMs, maxLagMs);
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                throw new SQLException("Replica lag query returned no row");
+            }
+            return Math.round(resultSet.getDouble(1) * 1000);
+        }
+    }
+}
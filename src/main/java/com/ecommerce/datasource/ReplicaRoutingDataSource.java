@@ -0,0 +1,60 @@
+package com.ecommerce.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Target for read-only connections: the replica while it is healthy and within the lag limit and the
+// user has no recent write, otherwise the primary.
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.replicaReads = Counter.builder("db.read.connections").tag("target", "replica").register(meterRegistry);
+        this.primaryReads = Counter.builder("db.read.connections").tag("target", "primary").register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (lagMonitor.isAvailable() && !readYourWritesTracker.isCurrentUserSticky()) {
+            try {
+                Connection connection = source.open(replica);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException ex) {
+                lagMonitor.markUnavailable();
+            }
+        }
+        primaryReads.increment();
+        return source.open(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+}
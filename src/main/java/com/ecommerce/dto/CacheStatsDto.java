@@ -0,0 +1,23 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+public record CacheStatsDto(
+        boolean statisticsEnabled,
+        long secondLevelHits,
+        long secondLevelMisses,
+        long secondLevelPuts,
+        long queryCacheHits,
+        long queryCacheMisses,
+        long queryCachePuts,
+        List<Region> regions
+) {
+    public record Region(
+            String name,
+            long hits,
+            long misses,
+            long puts,
+            double hitRatio,
+            long elementsInMemory
+    ) {}
+}
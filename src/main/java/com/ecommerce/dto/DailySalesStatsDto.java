@@ -0,0 +1,24 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.entity.DailySalesStats;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySalesStatsDto(
+        LocalDate date,
+        long ordersCreated,
+        BigDecimal ordersAmount,
+        long paymentsCompleted,
+        BigDecimal paymentsCompletedAmount
+) {
+    public static DailySalesStatsDto fromEntity(DailySalesStats stats) {
+        return new DailySalesStatsDto(
+                stats.getStatDate(),
+                stats.getOrdersCreated(),
+                stats.getOrdersAmount(),
+                stats.getPaymentsCompleted(),
+                stats.getPaymentsCompletedAmount()
+        );
+    }
+}
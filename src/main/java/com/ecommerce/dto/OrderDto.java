@@ -1,8 +1,10 @@
 package com.ecommerce.dto;
 
 import com.ecommerce.entity.Order;
+import com.ecommerce.repository.OrderRepository;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -84,6 +86,97 @@ public record OrderDto(
             String trackingNumber
     ) {}
 
+    public record ExportRow(
+            Long id,
+            String orderNumber,
+            Long userId,
+            String userEmail,
+            Order.OrderStatus status,
+            BigDecimal subtotal,
+            BigDecimal taxAmount,
+            BigDecimal shippingAmount,
+            BigDecimal discountAmount,
+            BigDecimal totalAmount,
+            String paymentStatus,
+            String paymentMethod,
+            String trackingNumber,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            LocalDateTime shippedAt,
+            LocalDateTime deliveredAt
+    ) {
+        public static ExportRow fromEntity(Order order) {
+            return new ExportRow(
+                    order.getId(),
+                    order.getOrderNumber(),
+                    order.getUser().getId(),
+                    order.getUser().getEmail(),
+                    order.getStatus(),
+                    order.getSubtotal(),
+                    order.getTaxAmount(),
+                    order.getShippingAmount(),
+                    order.getDiscountAmount(),
+                    order.getTotalAmount(),
+                    order.getPayment() != null ? order.getPayment().getStatus().name() : null,
+                    order.getPayment() != null ? order.getPayment().getPaymentMethod().name() : null,
+                    order.getTrackingNumber(),
+                    order.getCreatedAt(),
+                    order.getUpdatedAt(),
+                    order.getShippedAt(),
+                    order.getDeliveredAt()
+            );
+        }
+    }
+
+    // ExportRow without the payment columns, for the incremental history export: payment changes do not move
+    // the order's updatedAt, so payments go to their own partition with their own watermark (join on orderId)
+    public record HistoryRow(
+            Long id,
+            String orderNumber,
+            Long userId,
+            String userEmail,
+            Order.OrderStatus status,
+            BigDecimal subtotal,
+            BigDecimal taxAmount,
+            BigDecimal shippingAmount,
+            BigDecimal discountAmount,
+            BigDecimal totalAmount,
+            String trackingNumber,
+            LocalDateTime createdAt,
+            LocalDateTime updatedAt,
+            LocalDateTime shippedAt,
+            LocalDateTime deliveredAt
+    ) {
+        public static HistoryRow fromEntity(Order order) {
+            return new HistoryRow(
+                    order.getId(),
+                    order.getOrderNumber(),
+                    order.getUser().getId(),
+                    order.getUser().getEmail(),
+                    order.getStatus(),
+                    order.getSubtotal(),
+                    order.getTaxAmount(),
+                    order.getShippingAmount(),
+                    order.getDiscountAmount(),
+                    order.getTotalAmount(),
+                    order.getTrackingNumber(),
+                    order.getCreatedAt(),
+                    order.getUpdatedAt(),
+                    order.getShippedAt(),
+                    order.getDeliveredAt()
+            );
+        }
+    }
+
+    public record BulkCancelRequest(
+            @NotEmpty @Size(max = 500) List<Long> orderIds
+    ) {}
+
+    public record BulkCancelResponse(
+            int cancelledCount,
+            List<String> orderNumbers
+    ) {}
+
     public record OrderSummary(
             Long id,
             String orderNumber,
@@ -102,5 +195,16 @@ public record OrderDto(
                     order.getCreatedAt()
             );
         }
+
+        public static OrderSummary fromView(OrderRepository.OrderSummaryView view) {
+            return new OrderSummary(
+                    view.getId(),
+                    view.getOrderNumber(),
+                    view.getStatus(),
+                    view.getTotalAmount(),
+                    view.getTotalItems() != null ? view.getTotalItems().intValue() : 0,
+                    view.getCreatedAt()
+            );
+        }
     }
 }
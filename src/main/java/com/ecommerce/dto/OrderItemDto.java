@@ -3,6 +3,7 @@ package com.ecommerce.dto;
 import com.ecommerce.entity.OrderItem;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 public record OrderItemDto(
         Long id,
@@ -26,4 +27,32 @@ public record OrderItemDto(
                 orderItem.getTotalPrice()
         );
     }
+
+    public record ExportRow(
+            Long id,
+            Long orderId,
+            Long productId,
+            String productName,
+            String productSku,
+            Integer quantity,
+            BigDecimal unitPrice,
+            BigDecimal discountAmount,
+            BigDecimal totalPrice,
+            LocalDateTime orderUpdatedAt
+    ) {
+        public static ExportRow fromEntity(OrderItem orderItem, LocalDateTime orderUpdatedAt) {
+            return new ExportRow(
+                    orderItem.getId(),
+                    orderItem.getOrder().getId(),
+                    orderItem.getProduct() != null ? orderItem.getProduct().getId() : null,
+                    orderItem.getProductName(),
+                    orderItem.getProductSku(),
+                    orderItem.getQuantity(),
+                    orderItem.getUnitPrice(),
+                    orderItem.getDiscountAmount(),
+                    orderItem.getTotalPrice(),
+                    orderUpdatedAt
+            );
+        }
+    }
 }
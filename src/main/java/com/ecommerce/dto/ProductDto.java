@@ -93,6 +93,28 @@ public record ProductDto(
             BigDecimal discountPrice
     ) {}
 
+    public record BestSeller(
+            Long productId,
+            String name,
+            String sku,
+            String imageUrl,
+            BigDecimal effectivePrice,
+            Long categoryId,
+            long quantitySold
+    ) {
+        public static BestSeller of(Product product, long quantitySold) {
+            return new BestSeller(
+                    product.getId(),
+                    product.getName(),
+                    product.getSku(),
+                    product.getImageUrl(),
+                    product.getEffectivePrice(),
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    quantitySold
+            );
+        }
+    }
+
     public record SearchCriteria(
             String keyword,
             Long categoryId,
@@ -0,0 +1,44 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.analytics.Dimension;
+import com.ecommerce.analytics.Granularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SalesAnalyticsDto(
+        Dimension dimension,
+        String key,
+        Granularity granularity,
+        LocalDateTime from,
+        LocalDateTime to,
+        Totals totals,
+        List<Point> points
+) {
+    public record Totals(
+            BigDecimal revenue,
+            long orders,
+            long units
+    ) {}
+
+    public record Point(
+            LocalDateTime start,
+            BigDecimal revenue,
+            long orders,
+            long units
+    ) {}
+
+    public record BreakdownEntry(
+            String key,
+            Totals totals
+    ) {}
+
+    public record Breakdown(
+            Dimension dimension,
+            Granularity granularity,
+            LocalDateTime from,
+            LocalDateTime to,
+            List<BreakdownEntry> entries
+    ) {}
+}
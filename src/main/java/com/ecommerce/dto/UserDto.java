@@ -70,10 +70,30 @@ public record UserDto(
     public record LoginResponse(
             String token,
             String tokenType,
+            long expiresInMs,
+            String refreshToken,
+            LocalDateTime refreshTokenExpiresAt,
             UserDto user
     ) {
-        public LoginResponse(String token, UserDto user) {
-            this(token, "Bearer", user);
+        public LoginResponse(String token, long expiresInMs, String refreshToken,
+                             LocalDateTime refreshTokenExpiresAt, UserDto user) {
+            this(token, "Bearer", expiresInMs, refreshToken, refreshTokenExpiresAt, user);
+        }
+    }
+
+    public record RefreshRequest(
+            @NotBlank String refreshToken
+    ) {}
+
+    public record TokenResponse(
+            String token,
+            String tokenType,
+            long expiresInMs,
+            String refreshToken,
+            LocalDateTime refreshTokenExpiresAt
+    ) {
+        public TokenResponse(String token, long expiresInMs, String refreshToken, LocalDateTime refreshTokenExpiresAt) {
+            this(token, "Bearer", expiresInMs, refreshToken, refreshTokenExpiresAt);
         }
     }
 
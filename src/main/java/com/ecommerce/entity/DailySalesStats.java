@@ -0,0 +1,94 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Entity
+@Table(name = "daily_sales_stats")
+public class DailySalesStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "orders_created", nullable = false)
+    private long ordersCreated;
+
+    @Column(name = "orders_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal ordersAmount = BigDecimal.ZERO;
+
+    @Column(name = "payments_completed", nullable = false)
+    private long paymentsCompleted;
+
+    @Column(name = "payments_completed_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal paymentsCompletedAmount = BigDecimal.ZERO;
+
+    public DailySalesStats() {
+    }
+
+    public DailySalesStats(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public void setStatDate(LocalDate statDate) {
+        this.statDate = statDate;
+    }
+
+    public long getOrdersCreated() {
+        return ordersCreated;
+    }
+
+    public void setOrdersCreated(long ordersCreated) {
+        this.ordersCreated = ordersCreated;
+    }
+
+    public BigDecimal getOrdersAmount() {
+        return ordersAmount;
+    }
+
+    public void setOrdersAmount(BigDecimal ordersAmount) {
+        this.ordersAmount = ordersAmount;
+    }
+
+    public long getPaymentsCompleted() {
+        return paymentsCompleted;
+    }
+
+    public void setPaymentsCompleted(long paymentsCompleted) {
+        this.paymentsCompleted = paymentsCompleted;
+    }
+
+    public BigDecimal getPaymentsCompletedAmount() {
+        return paymentsCompletedAmount;
+    }
+
+    public void setPaymentsCompletedAmount(BigDecimal paymentsCompletedAmount) {
+        this.paymentsCompletedAmount = paymentsCompletedAmount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailySalesStats that = (DailySalesStats) o;
+        return Objects.equals(statDate, that.statDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statDate);
+    }
+
+    @Override
+    public String toString() {
+        return "DailySalesStats{statDate=%s, ordersCreated=%d, paymentsCompleted=%d}"
+                .formatted(statDate, ordersCreated, paymentsCompleted);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Tombstone for a deleted user. The users row is gone, so this is what tells the other nodes to reject
+// the user's access tokens; it only has to outlive the longest access token.
+@Entity
+@Table(name = "deleted_users", indexes = {
+        @Index(name = "idx_deleted_users_deleted_at", columnList = "deleted_at")
+})
+public class DeletedUser {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public DeletedUser() {
+    }
+
+    public DeletedUser(Long userId, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DeletedUser that = (DeletedUser) o;
+        return Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(userId);
+    }
+
+    @Override
+    public String toString() {
+        return "DeletedUser{userId=%d, deletedAt=%s}".formatted(userId, deletedAt);
+    }
+}
@@ -2,6 +2,7 @@ package com.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,11 +11,39 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_updated_at", columnList = "updated_at, id")
+})
+@NamedEntityGraph(
+        name = Order.LIST_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode("payment")
+        },
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("cart"))
+)
+@NamedEntityGraph(
+        name = Order.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "user", subgraph = "user"),
+                @NamedAttributeNode("payment"),
+                @NamedAttributeNode("orderItems")
+        },
+        subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("cart"))
+)
 public class Order {
 
+    // To-one associations only, so pages can still be limited in SQL; items are batch-fetched per page.
+    // User.cart is the inverse side of a one-to-one and cannot be lazy, so it is joined rather than
+    // left to trigger one select per user.
+    public static final String LIST_GRAPH = "Order.list";
+    public static final String DETAIL_GRAPH = "Order.detail";
+
+    // A pooled sequence rather than identity: Hibernate has to insert identity rows one at a time to read
+    // back the id, so an order and its items could never go out as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", unique = true, nullable = false)
@@ -26,6 +55,7 @@ public class Order {
     private User user;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<OrderItem> orderItems = new ArrayList<>();
 
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -0,0 +1,72 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// An outbox id a relay found missing below a visible one: either its transaction was still running or it
+// rolled back and the id was burned. The relay waits on it until it shows up or the gap horizon passes.
+@Entity
+@Table(name = "outbox_gaps", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_outbox_gaps_consumer_event", columnNames = {"consumer", "event_id"})
+})
+public class OutboxGap {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "consumer", nullable = false, length = 100)
+    private String consumer;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    // Database time, so every relay node ages gaps by the same clock
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+
+    public OutboxGap() {
+    }
+
+    public OutboxGap(String consumer, Long eventId, LocalDateTime detectedAt) {
+        this.consumer = consumer;
+        this.eventId = eventId;
+        this.detectedAt = detectedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboxGap that = (OutboxGap) o;
+        return Objects.equals(consumer, that.consumer) && Objects.equals(eventId, that.eventId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(consumer, eventId);
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxGap{consumer='%s', eventId=%d}".formatted(consumer, eventId);
+    }
+}
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_paid_at", columnList = "paid_at"),
+        @Index(name = "idx_payments_updated_at", columnList = "updated_at, id")
+})
 public class Payment {
 
     @Id
@@ -73,6 +76,8 @@ public class Payment {
         PROCESSING,
         COMPLETED,
         FAILED,
+        // Refund sent to the provider and not yet confirmed
+        REFUNDING,
         REFUNDED,
         CANCELLED
     }
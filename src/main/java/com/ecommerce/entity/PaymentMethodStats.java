@@ -0,0 +1,72 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+@Entity
+@Table(name = "payment_method_stats")
+public class PaymentMethodStats {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 30)
+    private Payment.PaymentMethod paymentMethod;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    @Column(name = "completed_amount", nullable = false, precision = 16, scale = 2)
+    private BigDecimal completedAmount = BigDecimal.ZERO;
+
+    public PaymentMethodStats() {
+    }
+
+    public PaymentMethodStats(Payment.PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public Payment.PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(Payment.PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public BigDecimal getCompletedAmount() {
+        return completedAmount;
+    }
+
+    public void setCompletedAmount(BigDecimal completedAmount) {
+        this.completedAmount = completedAmount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PaymentMethodStats that = (PaymentMethodStats) o;
+        return paymentMethod == that.paymentMethod;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(paymentMethod);
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentMethodStats{paymentMethod=%s, completedCount=%d, completedAmount=%s}"
+                .formatted(paymentMethod, completedCount, completedAmount);
+    }
+}
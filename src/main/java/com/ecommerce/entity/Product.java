@@ -2,6 +2,9 @@ package com.ecommerce.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,8 +14,13 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Product.LIST_GRAPH, attributeNodes = @NamedAttributeNode("category"))
 public class Product {
 
+    public static final String LIST_GRAPH = "Product.list";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -43,8 +51,10 @@ public class Product {
     private String imageUrl;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url")
+    @BatchSize(size = 50)
     private List<String> additionalImages = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -14,6 +15,8 @@ import java.util.Set;
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email"),
         @UniqueConstraint(columnNames = "username")
+}, indexes = {
+        @Index(name = "idx_users_updated_at", columnList = "updated_at")
 })
 public class User {
 
@@ -55,6 +58,11 @@ public class User {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // Bumped whenever previously issued tokens must stop working (password, role or enabled change)
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -171,6 +179,18 @@ public class User {
         this.enabled = enabled;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public void revokeTokens() {
+        this.tokenVersion++;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
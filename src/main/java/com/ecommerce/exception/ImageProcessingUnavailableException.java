@@ -0,0 +1,15 @@
+package com.ecommerce.exception;
+
+public class ImageProcessingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ImageProcessingUnavailableException(String reason, long retryAfterSeconds) {
+        super("Image processing is temporarily overloaded: " + reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+public class InvalidRefreshTokenException extends AuthenticationException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(String reason, long retryAfterSeconds) {
+        super("Authentication is temporarily overloaded: " + reason);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.exception;
+
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    private final String provider;
+
+    public PaymentGatewayUnavailableException(String provider, String reason) {
+        super(String.format("Payment provider '%s' is temporarily unavailable: %s", provider, reason));
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
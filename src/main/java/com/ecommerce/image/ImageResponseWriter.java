@@ -0,0 +1,183 @@
+package com.ecommerce.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// Writes a stored image without copying it through the heap. Large bodies go out via Tomcat's sendfile
+// (FileChannel.transferTo after the request returns); the rest are memory-mapped and handed to the
+// container as a ByteBuffer. Supports a single byte range, strong ETags and immutable caching.
+@Component
+public class ImageResponseWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final String cacheControl;
+    private final long sendfileMinBytes;
+    private final Counter sendfileResponses;
+    private final Counter mappedResponses;
+    private final Counter notModifiedResponses;
+
+    public ImageResponseWriter(MeterRegistry meterRegistry,
+                               @Value("${app.images.cache-max-age-seconds:31536000}") long cacheMaxAgeSeconds,
+                               @Value("${app.images.sendfile-min-bytes:49152}") long sendfileMinBytes) {
+        this.cacheControl = "public, max-age=" + cacheMaxAgeSeconds + ", immutable";
+        this.sendfileMinBytes = sendfileMinBytes;
+        this.sendfileResponses = responses(meterRegistry, "sendfile");
+        this.mappedResponses = responses(meterRegistry, "mapped");
+        this.notModifiedResponses = responses(meterRegistry, "not_modified");
+    }
+
+    // Originals are immutable and never deleted, so Tomcat may open them by name after the request returns
+    public void write(ImageStorage.StoredImage image, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ByteRange range = prepare(image, request, response);
+        if (range == null) {
+            return;
+        }
+
+        if (range.length() >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range.first());
+            request.setAttribute(SENDFILE_END, range.last() + 1);
+            sendfileResponses.increment();
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            writeMapped(channel, range, response);
+        }
+    }
+
+    // For files the cache may delete at any time: the body comes from the channel opened before the
+    // size was read, never from the path, so an eviction cannot truncate the response
+    public void write(OpenedImage opened, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ByteRange range = prepare(opened.image(), request, response);
+        if (range != null) {
+            writeMapped(opened.channel(), range, response);
+        }
+    }
+
+    // Sets the headers and status; returns null when no body follows (304, 416 or HEAD)
+    private ByteRange prepare(ImageStorage.StoredImage image, HttpServletRequest request,
+                              HttpServletResponse response) {
+        String etag = "\"" + image.hash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            notModifiedResponses.increment();
+            return null;
+        }
+
+        long size = image.size();
+        ByteRange range = null;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range only ever matches our strong ETag; a date or an old ETag means the whole image
+        if (rangeHeader != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            range = ByteRange.parse(rangeHeader, size);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return null;
+        }
+        if (range == null) {
+            range = new ByteRange(0, size - 1);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.first() + "-" + range.last() + "/" + size);
+        }
+
+        response.setContentType(image.type().getContentType());
+        response.setContentLengthLong(range.length());
+        return "HEAD".equals(request.getMethod()) ? null : range;
+    }
+
+    private void writeMapped(FileChannel channel, ByteRange range, HttpServletResponse response) throws IOException {
+        // The mapping is released as soon as the container has taken the bytes, not whenever GC runs
+        try (Arena arena = Arena.ofConfined()) {
+            response.getOutputStream().write(
+                    channel.map(FileChannel.MapMode.READ_ONLY, range.first(), range.length(), arena).asByteBuffer());
+        }
+        mappedResponses.increment();
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter responses(MeterRegistry meterRegistry, String transfer) {
+        return Counter.builder("image.responses")
+                .description("Product image responses by how the body was sent")
+                .tag("transfer", transfer)
+                .register(meterRegistry);
+    }
+
+    record ByteRange(long first, long last) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return last - first + 1;
+        }
+
+        // Returns null for anything but a single well-formed byte range, which is then ignored and the
+        // whole image served, as RFC 9110 allows
+        static ByteRange parse(String header, long size) {
+            if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                if (dash == 0) {
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    return suffix == 0 ? UNSATISFIABLE : new ByteRange(Math.max(0, size - suffix), size - 1);
+                }
+                long first = Long.parseLong(spec.substring(0, dash));
+                String lastPart = spec.substring(dash + 1);
+                long last = lastPart.isEmpty() ? size - 1 : Long.parseLong(lastPart);
+                if (first < 0 || last < first) {
+                    return null;
+                }
+                return first >= size ? UNSATISFIABLE : new ByteRange(first, Math.min(last, size - 1));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+}
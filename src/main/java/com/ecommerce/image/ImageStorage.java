@@ -0,0 +1,168 @@
+package com.ecommerce.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Content-addressed image files on local disk: <path>/<first two hex digits>/<sha-256>.<extension>.
+// A name never points at different bytes, so the same upload is stored once and responses can be
+// cached forever.
+@Component
+public class ImageStorage {
+
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif|webp)");
+    private static final int SNIFF_BYTES = 12;
+
+    public enum ImageType {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png"),
+        GIF("gif", "image/gif"),
+        WEBP("webp", "image/webp");
+
+        private final String extension;
+        private final String contentType;
+
+        ImageType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        static Optional<ImageType> fromExtension(String extension) {
+            return Arrays.stream(values()).filter(type -> type.extension.equals(extension)).findFirst();
+        }
+
+        // Decided by the file's magic bytes, never by the client's Content-Type or file name
+        static Optional<ImageType> sniff(byte[] head, int length) {
+            if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+                return Optional.of(JPEG);
+            }
+            if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                    && head[4] == '\r' && head[5] == '\n' && (head[6] & 0xFF) == 0x1A && head[7] == '\n') {
+                return Optional.of(PNG);
+            }
+            if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+                return Optional.of(GIF);
+            }
+            if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                    && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+                return Optional.of(WEBP);
+            }
+            return Optional.empty();
+        }
+    }
+
+    public record StoredImage(String name, String hash, ImageType type, Path path, long size) {
+    }
+
+    private final Path root;
+    private final long maxBytes;
+
+    public ImageStorage(@Value("${app.images.path:data/images}") Path root,
+                        @Value("${app.images.max-bytes:10485760}") long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+    }
+
+    public StoredImage store(InputStream content) {
+        Path temp = null;
+        try {
+            Files.createDirectories(root);
+            temp = Files.createTempFile(root, "upload-", ".tmp");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] head = new byte[SNIFF_BYTES];
+            int headLength = 0;
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new IllegalArgumentException("Image exceeds the maximum size of " + maxBytes + " bytes");
+                    }
+                    if (headLength < SNIFF_BYTES) {
+                        int copied = Math.min(SNIFF_BYTES - headLength, read);
+                        System.arraycopy(buffer, 0, head, headLength, copied);
+                        headLength += copied;
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            ImageType type = ImageType.sniff(head, headLength)
+                    .orElseThrow(() -> new IllegalArgumentException("Only JPEG, PNG, GIF and WebP images are supported"));
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String name = hash + "." + type.getExtension();
+            Path target = pathFor(hash, name);
+            Files.createDirectories(target.getParent());
+            try {
+                // An existing file with this name already holds exactly these bytes, so it does not
+                // matter whether the platform replaces it or refuses the move
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException ex) {
+                Files.deleteIfExists(temp);
+            }
+            return new StoredImage(name, hash, type, target, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store image", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    public Optional<StoredImage> find(String name) {
+        var matcher = NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        String hash = matcher.group(1);
+        Path path = pathFor(hash, name);
+        try {
+            return Optional.of(new StoredImage(name, hash,
+                    ImageType.fromExtension(matcher.group(2)).orElseThrow(), path, Files.size(path)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path pathFor(String hash, String name) {
+        return root.resolve(hash.substring(0, 2)).resolve(name);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A leftover upload-*.tmp file is harmless
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.image;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A stored image whose file is already open, with the size read from that open channel. The open channel
+// keeps the bytes readable even if the cache evicts and deletes the file meanwhile (POSIX unlink), so
+// files that can disappear at any time are served from here and never reopened by name.
+public record OpenedImage(ImageStorage.StoredImage image, FileChannel channel) implements Closeable {
+
+    public static OpenedImage open(ImageStorage.StoredImage image) throws IOException {
+        return open(image.name(), image.hash(), image.type(), image.path());
+    }
+
+    public static OpenedImage open(String name, String hash, ImageStorage.ImageType type, Path path)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new OpenedImage(new ImageStorage.StoredImage(name, hash, type, path, channel.size()), channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
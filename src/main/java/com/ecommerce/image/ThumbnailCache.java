@@ -0,0 +1,158 @@
+package com.ecommerce.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Size-capped LRU of thumbnail files on local disk. The index (name -> size, in access order) lives in
+// memory, so lookups and evictions never list the directory; it is rebuilt from file modification
+// times on startup, which is the closest thing to the previous run's recency.
+@Component
+public class ThumbnailCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailCache.class);
+
+    private final Path root;
+    private final long maxBytes;
+    private final Counter evictions;
+
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public ThumbnailCache(MeterRegistry meterRegistry,
+                          @Value("${app.images.thumbnails.path:data/thumbnails}") Path root,
+                          @Value("${app.images.thumbnails.max-bytes:268435456}") long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        this.evictions = Counter.builder("image.thumbnail.cache.evictions")
+                .description("Thumbnails deleted to keep the disk cache under its size cap")
+                .register(meterRegistry);
+        Gauge.builder("image.thumbnail.cache.bytes", this, ThumbnailCache::totalBytes)
+                .register(meterRegistry);
+        Gauge.builder("image.thumbnail.cache.entries", this, ThumbnailCache::entries)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadIndex() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        record CachedFile(String name, long size, long lastModified) {
+        }
+        List<CachedFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    files.add(new CachedFile(name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Could not index thumbnail cache at {}, starting empty", root, ex);
+            return;
+        }
+
+        files.sort(Comparator.comparingLong(CachedFile::lastModified));
+        synchronized (this) {
+            for (CachedFile file : files) {
+                index.put(file.name(), file.size());
+                totalBytes += file.size();
+            }
+            evictOverflow();
+        }
+        log.info("Indexed {} cached thumbnails ({} bytes)", index.size(), totalBytes);
+    }
+
+    public Optional<Path> get(String name) {
+        synchronized (this) {
+            if (index.get(name) == null) {
+                return Optional.empty();
+            }
+        }
+        Path path = root.resolve(name);
+        if (Files.exists(path)) {
+            return Optional.of(path);
+        }
+        // Deleted behind our back
+        synchronized (this) {
+            Long size = index.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Path put(String name, byte[] content) {
+        Path target = root.resolve(name);
+        try {
+            Files.createDirectories(root);
+            Path temp = Files.createTempFile(root, "thumbnail-", ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write thumbnail " + target, e);
+        }
+
+        synchronized (this) {
+            Long previous = index.put(name, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            evictOverflow();
+        }
+        return target;
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int entries() {
+        return index.size();
+    }
+
+    // Keeps at least the newest entry, even when it alone is larger than the cap
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && index.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions.increment();
+            try {
+                Files.deleteIfExists(root.resolve(entry.getKey()));
+            } catch (IOException ex) {
+                log.warn("Could not delete evicted thumbnail {}", entry.getKey(), ex);
+            }
+        }
+    }
+}
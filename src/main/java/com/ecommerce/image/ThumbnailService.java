@@ -0,0 +1,276 @@
+package com.ecommerce.image;
+
+import com.ecommerce.exception.ImageProcessingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Resizes stored images to a fixed set of widths on first request and keeps the results in the
+// ThumbnailCache. Rendering runs on a small bounded pool, and concurrent requests for the same variant
+// share one render (single-flight), so a cold cache costs at most one decode per variant and never
+// more CPU than the pool has threads. Sources that cannot be decoded are remembered by content hash, so
+// they are answered with the original without queueing another render.
+@Component
+public class ThumbnailService {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+    private static final int MAX_UNDECODABLE_SOURCES = 10_000;
+
+    private final ThumbnailCache cache;
+    private final List<Integer> widths;
+    private final long maxSourcePixels;
+    private final long waitTimeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+    // Content-addressed, so a hash that failed to decode once always will
+    private final Set<String> undecodable = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_UNDECODABLE_SOURCES;
+                }
+            }));
+
+    private final Counter hits;
+    private final Counter renders;
+    private final Counter joined;
+    private final Counter rejected;
+    private final Counter skipped;
+    private final Timer renderTimer;
+
+    public ThumbnailService(ThumbnailCache cache,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.images.thumbnails.widths:128,256,512}") List<Integer> widths,
+                            @Value("${app.images.thumbnails.max-source-pixels:40000000}") long maxSourcePixels,
+                            @Value("${app.images.thumbnails.workers:2}") int workers,
+                            @Value("${app.images.thumbnails.queue-capacity:32}") int queueCapacity,
+                            @Value("${app.images.thumbnails.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.cache = cache;
+        this.widths = widths.stream().sorted().toList();
+        this.maxSourcePixels = maxSourcePixels;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("thumbnail-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.hits = requests(meterRegistry, "hit");
+        this.renders = requests(meterRegistry, "render");
+        this.joined = requests(meterRegistry, "joined");
+        this.rejected = requests(meterRegistry, "rejected");
+        this.skipped = requests(meterRegistry, "undecodable");
+        this.renderTimer = Timer.builder("image.thumbnail.render.duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("image.thumbnail.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    // Returns the original when it cannot be decoded here (WebP, CMYK JPEG) or is too large to decode safely.
+    // The thumbnail comes back already open: the cache may evict and delete the file as soon as it is found,
+    // so the caller must serve it from the returned channel and close it afterwards.
+    public OpenedImage open(ImageStorage.StoredImage original, int requestedWidth) throws IOException {
+        ImageStorage.ImageType outputType = switch (original.type()) {
+            case JPEG -> ImageStorage.ImageType.JPEG;
+            case PNG, GIF -> ImageStorage.ImageType.PNG;
+            case WEBP -> null;
+        };
+        if (outputType == null) {
+            return OpenedImage.open(original);
+        }
+        if (undecodable.contains(original.hash())) {
+            skipped.increment();
+            return OpenedImage.open(original);
+        }
+
+        int width = snapWidth(requestedWidth);
+        String variant = original.hash() + "-w" + width;
+        String name = variant + "." + outputType.getExtension();
+
+        // A second miss means the variant was evicted again right after rendering; the cache is thrashing
+        // and the original is the cheaper answer
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Optional<Path> path = cache.get(name);
+            if (path.isPresent()) {
+                hits.increment();
+            } else {
+                path = awaitRender(name, original, width, outputType);
+            }
+            if (path.isEmpty()) {
+                return OpenedImage.open(original);
+            }
+            try {
+                return OpenedImage.open(name, variant, outputType, path.get());
+            } catch (NoSuchFileException evicted) {
+                // Deleted between the lookup and the open
+            }
+        }
+        return OpenedImage.open(original);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Optional<Path> awaitRender(String name, ImageStorage.StoredImage original, int width,
+                                       ImageStorage.ImageType outputType) {
+        boolean[] started = new boolean[1];
+        CompletableFuture<Optional<Path>> flight;
+        try {
+            flight = inFlight.computeIfAbsent(name, key -> {
+                started[0] = true;
+                return CompletableFuture.supplyAsync(() -> render(name, original, width, outputType), executor);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ImageProcessingUnavailableException("thumbnail queue is full", RETRY_AFTER_SECONDS);
+        }
+        (started[0] ? renders : joined).increment();
+        // Registered outside computeIfAbsent: a render that already finished would otherwise
+        // modify the map from inside its own mapping function
+        flight.whenComplete((result, ex) -> inFlight.remove(name, flight));
+
+        try {
+            return flight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The render keeps going and lands in the cache for the next request
+            throw new ImageProcessingUnavailableException("thumbnail is still rendering", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Thumbnail rendering failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageProcessingUnavailableException("interrupted while waiting", RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private Optional<Path> render(String name, ImageStorage.StoredImage original, int width,
+                                  ImageStorage.ImageType outputType) {
+        // A request that missed the cache just before the previous flight landed
+        Optional<Path> cached = cache.get(name);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        try {
+            BufferedImage source = decode(original.path(), width);
+            if (source == null) {
+                undecodable.add(original.hash());
+                return Optional.empty();
+            }
+            BufferedImage scaled = scale(source, width, outputType == ImageStorage.ImageType.PNG);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+            if (!ImageIO.write(scaled, outputType == ImageStorage.ImageType.PNG ? "png" : "jpeg", out)) {
+                undecodable.add(original.hash());
+                return Optional.empty();
+            }
+            return Optional.of(cache.put(name, out.toByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render thumbnail " + name, e);
+        } finally {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Decodes with source subsampling, so a large photo is never fully expanded in memory just to be
+    // shrunk; the subsampled image stays at least twice the target width to keep the final scale smooth
+    private BufferedImage decode(Path path, int width) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (width * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException ex) {
+                // Decodable formats with unsupported variants, e.g. CMYK JPEGs
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, boolean keepAlpha) {
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Only a few widths exist, so arbitrary ?width= values cannot fill the cache with variants
+    private int snapWidth(int requested) {
+        for (int width : widths) {
+            if (width >= requested) {
+                return width;
+            }
+        }
+        return widths.getLast();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("image.thumbnail.requests")
+                .description("Thumbnail requests by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
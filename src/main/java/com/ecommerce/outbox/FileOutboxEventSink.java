@@ -0,0 +1,66 @@
+package com.ecommerce.outbox;
+
+import com.ecommerce.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "app.outbox.sink", havingValue = "file")
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxEventSink(@Value("${app.outbox.file.path:outbox-events.ndjson}") Path file,
+                               ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (OutboxEvent event : events) {
+                    writer.write(objectMapper.writeValueAsString(toRecord(event)));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append outbox events to " + file, e);
+        }
+    }
+
+    private Map<String, Object> toRecord(OutboxEvent event) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", event.getId());
+        record.put("aggregateType", event.getAggregateType());
+        record.put("aggregateId", event.getAggregateId());
+        record.put("eventType", event.getEventType().name());
+        record.put("createdAt", event.getCreatedAt().toString());
+        record.put("payload", objectMapper.readTree(event.getPayload()));
+        return record;
+    }
+}
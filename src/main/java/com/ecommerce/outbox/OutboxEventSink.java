@@ -0,0 +1,12 @@
+package com.ecommerce.outbox;
+
+import com.ecommerce.entity.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventSink {
+
+    String getName();
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,178 @@
+package com.ecommerce.outbox;
+
+import com.ecommerce.entity.OutboxEvent;
+import com.ecommerce.entity.OutboxGap;
+import com.ecommerce.entity.OutboxOffset;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.ecommerce.repository.OutboxGapRepository;
+import com.ecommerce.repository.OutboxOffsetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final OutboxGapRepository outboxGapRepository;
+    private final OutboxEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long gapHorizonMs;
+    private final int maxGapIdsPerBatch;
+    private final long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxOffsetRepository outboxOffsetRepository,
+                       OutboxGapRepository outboxGapRepository,
+                       OutboxEventSink sink,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.relay.gap-horizon-ms:300000}") long gapHorizonMs,
+                       @Value("${app.outbox.relay.max-gap-ids-per-batch:10000}") int maxGapIdsPerBatch,
+                       @Value("${app.outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxOffsetRepository = outboxOffsetRepository;
+        this.outboxGapRepository = outboxGapRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.gapHorizonMs = gapHorizonMs;
+        this.maxGapIdsPerBatch = maxGapIdsPerBatch;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval-ms:1000}",
+            initialDelayString = "${app.outbox.relay.initial-delay-ms:5000}")
+    public void relayPendingEvents() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Outbox relay to sink '{}' failed, batch will be retried", sink.getName(), ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge.interval-ms:3600000}",
+            initialDelayString = "${app.outbox.purge.interval-ms:3600000}")
+    public void purgePublishedEvents() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long minimumOffset = outboxOffsetRepository.findMinimumLastEventId();
+            if (minimumOffset != null) {
+                outboxEventRepository.deletePublishedBefore(minimumOffset,
+                        LocalDateTime.now().minusHours(retentionHours));
+            }
+        });
+    }
+
+    // Identity ids are allocated at insert, not at commit, so a lower id can become visible after a higher
+    // one: a long transaction, or two inserts committing in the other order. The relay publishes strictly in
+    // id order and stops at the lowest missing id, so consumers never see an aggregate's later event before an
+    // earlier one. Holding back only the affected aggregate is not possible: an uncommitted row's aggregate is
+    // unknown. A missing id is waited for until it shows up or is older than the gap horizon, after which its
+    // transaction is assumed to have rolled back and burned the id.
+    private int relayBatch() {
+        String consumer = sink.getName();
+        // The row lock on the offset makes concurrent relays on other nodes wait instead of double-publishing
+        OutboxOffset offset = outboxOffsetRepository.findByConsumerForUpdate(consumer)
+                .orElseGet(() -> outboxOffsetRepository.save(new OutboxOffset(consumer)));
+        long afterId = offset.getLastEventId();
+        if (afterId == 0) {
+            // A fresh offset starts just below the oldest event still in the table; older ids were purged
+            Long minimumId = outboxEventRepository.findMinimumId();
+            if (minimumId == null) {
+                return 0;
+            }
+            afterId = minimumId - 1;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findBatchAfter(afterId, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = outboxEventRepository.currentDatabaseTime();
+        Map<Long, LocalDateTime> gaps = trackGaps(consumer, afterId, batch, now);
+        LocalDateTime expiredBefore = now.minusNanos(gapHorizonMs * 1_000_000);
+
+        List<OutboxEvent> publishable = new ArrayList<>(batch.size());
+        long lastId = afterId;
+        for (OutboxEvent event : batch) {
+            if (!gapsExpired(consumer, lastId, event.getId(), gaps, expiredBefore)) {
+                break;
+            }
+            publishable.add(event);
+            lastId = event.getId();
+        }
+        if (publishable.isEmpty()) {
+            return 0;
+        }
+
+        // If the sink throws, nothing below runs and the same events are redelivered next run
+        sink.publish(publishable);
+        outboxGapRepository.deleteByConsumerUpTo(consumer, lastId);
+        offset.setLastEventId(lastId);
+        outboxOffsetRepository.save(offset);
+        return publishable.size();
+    }
+
+    // Records every id missing from the batch, up to maxGapIdsPerBatch counted from the offset, with the time
+    // it was first seen missing. Ids past the cap are left untracked and block publishing until a later run
+    // tracks them, so the offset never moves past an id nobody waited for.
+    private Map<Long, LocalDateTime> trackGaps(String consumer, long afterId, List<OutboxEvent> batch,
+                                               LocalDateTime now) {
+        Map<Long, LocalDateTime> gaps = new HashMap<>();
+        for (OutboxGap gap : outboxGapRepository.findByConsumerAfter(consumer, afterId)) {
+            gaps.put(gap.getEventId(), gap.getDetectedAt());
+        }
+        List<OutboxGap> detected = new ArrayList<>();
+        int missing = 0;
+        long expected = afterId + 1;
+        scan:
+        for (OutboxEvent event : batch) {
+            for (long id = expected; id < event.getId(); id++) {
+                if (missing++ == maxGapIdsPerBatch) {
+                    break scan;
+                }
+                if (!gaps.containsKey(id)) {
+                    gaps.put(id, now);
+                    detected.add(new OutboxGap(consumer, id, now));
+                }
+            }
+            expected = event.getId() + 1;
+        }
+        outboxGapRepository.saveAll(detected);
+        return gaps;
+    }
+
+    private boolean gapsExpired(String consumer, long lastId, long nextId, Map<Long, LocalDateTime> gaps,
+                                LocalDateTime expiredBefore) {
+        if (nextId == lastId + 1) {
+            return true;
+        }
+        for (long id = lastId + 1; id < nextId; id++) {
+            LocalDateTime detectedAt = gaps.get(id);
+            if (detectedAt == null || !detectedAt.isBefore(expiredBefore)) {
+                return false;
+            }
+        }
+        log.info("Outbox ids {}..{} for sink '{}' stayed missing for {} ms, treating them as rolled back",
+                lastId + 1, nextId - 1, consumer, gapHorizonMs);
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.payment;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    // Every state change starts a new generation, and a permission remembers the one it was granted in.
+    // Results of calls from an earlier generation are ignored: a slow call that started before the circuit
+    // opened must neither restart the open period nor close the circuit again.
+    public record Permission(long generation) {
+    }
+
+    private record Phase(State state, long generation, long openedAt) {
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0, 0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    public State getState() {
+        return phase.get().state();
+    }
+
+    // Null when the call must not go ahead
+    public Permission tryAcquirePermission() {
+        Phase current = phase.get();
+        return switch (current.state()) {
+            case CLOSED -> new Permission(current.generation());
+            case OPEN -> {
+                if (System.nanoTime() - current.openedAt() < openDurationNanos) {
+                    yield null;
+                }
+                // Only the caller that wins the transition gets the single trial call
+                Phase halfOpen = new Phase(State.HALF_OPEN, current.generation() + 1, current.openedAt());
+                yield phase.compareAndSet(current, halfOpen) ? new Permission(halfOpen.generation()) : null;
+            }
+            case HALF_OPEN -> null;
+        };
+    }
+
+    // The permitted call never ran; a trial permission goes back to OPEN so the next caller can try
+    public void releasePermission(Permission permission) {
+        Phase current = phase.get();
+        if (current.state() == State.HALF_OPEN && current.generation() == permission.generation()) {
+            phase.compareAndSet(current, new Phase(State.OPEN, current.generation() + 1, current.openedAt()));
+        }
+    }
+
+    public void onSuccess(Permission permission) {
+        Phase current = phase.get();
+        if (current.generation() != permission.generation()) {
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (current.state() == State.HALF_OPEN) {
+            phase.compareAndSet(current, new Phase(State.CLOSED, current.generation() + 1, 0));
+        }
+    }
+
+    // Permissions are never granted while OPEN, so failures reported then always carry an older generation
+    public void onFailure(Permission permission) {
+        Phase current = phase.get();
+        if (current.generation() != permission.generation()) {
+            return;
+        }
+        if (current.state() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            if (phase.compareAndSet(current, new Phase(State.OPEN, current.generation() + 1, System.nanoTime()))) {
+                consecutiveFailures.set(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.payment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+public class FakePaymentGateway implements PaymentGateway {
+
+    public static final String PROVIDER = "fake";
+
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double failureRate;
+    // Remembers outcomes by transactionId, as a real provider does for idempotent retries and lookups
+    private final Map<String, ChargeResult> charges = new ConcurrentHashMap<>();
+    private final Map<String, ChargeResult> refunds = new ConcurrentHashMap<>();
+
+    public FakePaymentGateway(@Value("${app.payment.fake.latency-ms:50}") long latencyMs,
+                              @Value("${app.payment.fake.latency-jitter-ms:0}") long latencyJitterMs,
+                              @Value("${app.payment.fake.failure-rate:0.0}") double failureRate) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String getProvider() {
+        return PROVIDER;
+    }
+
+    @Override
+    public ChargeResult charge(ChargeRequest request) {
+        ChargeResult previous = charges.get(request.transactionId());
+        if (previous != null) {
+            return previous;
+        }
+
+        simulateLatency();
+        ChargeResult result = ThreadLocalRandom.current().nextDouble() < failureRate
+                ? ChargeResult.declined("Payment declined by fake gateway")
+                : ChargeResult.approved("FAKE-" + UUID.randomUUID());
+        return charges.merge(request.transactionId(), result, (first, second) -> first);
+    }
+
+    @Override
+    public ChargeResult lookup(String transactionId) {
+        return charges.getOrDefault(transactionId, ChargeResult.declined("Unknown transaction"));
+    }
+
+    @Override
+    public boolean voidCharge(String transactionId, String providerReference) {
+        charges.computeIfPresent(transactionId, (id, result) -> ChargeResult.declined("Charge voided"));
+        return true;
+    }
+
+    @Override
+    public ChargeResult refund(String transactionId, BigDecimal amount) {
+        ChargeResult previous = refunds.get(transactionId);
+        if (previous != null) {
+            return previous;
+        }
+
+        simulateLatency();
+        ChargeResult charge = charges.get(transactionId);
+        ChargeResult result = charge != null && charge.success()
+                ? ChargeResult.approved("FAKE-REFUND-" + UUID.randomUUID())
+                : ChargeResult.declined("No approved charge to refund");
+        return refunds.merge(transactionId, result, (first, second) -> first);
+    }
+
+    private void simulateLatency() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Fake payment gateway call interrupted", e);
+            }
+        }
+    }
+}
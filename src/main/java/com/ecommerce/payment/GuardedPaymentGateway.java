@@ -0,0 +1,147 @@
+package com.ecommerce.payment;
+
+import com.ecommerce.exception.PaymentGatewayUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+public class GuardedPaymentGateway {
+
+    private final PaymentGateway delegate;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+
+    public GuardedPaymentGateway(PaymentGateway delegate, int maxConcurrentCalls, Duration timeout,
+                                 CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+
+        // A SynchronousQueue hands work straight to an idle thread, so the pool size is the bulkhead:
+        // once every thread is busy with this provider further calls are rejected instead of queueing.
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrentCalls, maxConcurrentCalls,
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                Thread.ofPlatform().name("payment-" + delegate.getProvider() + "-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        String provider = delegate.getProvider();
+        this.circuitOpenRejections = Counter.builder("payment.gateway.rejected")
+                .tag("provider", provider)
+                .tag("reason", "circuit_open")
+                .register(meterRegistry);
+        this.bulkheadRejections = Counter.builder("payment.gateway.rejected")
+                .tag("provider", provider)
+                .tag("reason", "bulkhead_full")
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.active.calls", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    public String getProvider() {
+        return delegate.getProvider();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // A timeout or a provider error leaves the charge UNKNOWN rather than declined: the request may have
+    // reached the provider, so the caller has to look it up before treating the payment as failed
+    public PaymentGateway.ChargeResult charge(PaymentGateway.ChargeRequest request) {
+        return call("charge", () -> delegate.charge(request),
+                PaymentGateway.ChargeResult::unknown,
+                result -> result.success() ? "approved" : "declined");
+    }
+
+    public PaymentGateway.ChargeResult lookup(String transactionId) {
+        return call("lookup", () -> delegate.lookup(transactionId),
+                PaymentGateway.ChargeResult::unknown,
+                result -> result.outcome().name().toLowerCase(Locale.ROOT));
+    }
+
+    public boolean voidCharge(String transactionId, String providerReference) {
+        return call("void", () -> delegate.voidCharge(transactionId, providerReference),
+                reason -> false,
+                voided -> voided ? "voided" : "not_voided");
+    }
+
+    public PaymentGateway.ChargeResult refund(String transactionId, BigDecimal amount) {
+        return call("refund", () -> delegate.refund(transactionId, amount),
+                PaymentGateway.ChargeResult::unknown,
+                result -> result.outcome().name().toLowerCase(Locale.ROOT));
+    }
+
+    private <T> T call(String operation, Callable<T> task, Function<String, T> onUnknown,
+                       Function<T, String> outcome) {
+        CircuitBreaker.Permission permission = circuitBreaker.tryAcquirePermission();
+        if (permission == null) {
+            circuitOpenRejections.increment();
+            throw new PaymentGatewayUnavailableException(getProvider(), "circuit breaker is open");
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.releasePermission(permission);
+            bulkheadRejections.increment();
+            throw new PaymentGatewayUnavailableException(getProvider(), "too many concurrent calls");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess(permission);
+            record(start, operation, outcome.apply(result));
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure(permission);
+            record(start, operation, "timeout");
+            return onUnknown.apply("Payment provider timed out");
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure(permission);
+            record(start, operation, "error");
+            return onUnknown.apply("Payment provider error: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            circuitBreaker.releasePermission(permission);
+            // The call was already handed to the provider thread, so its effect is just as unknown
+            return onUnknown.apply("Payment provider call was interrupted");
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void record(long startNanos, String operation, String outcome) {
+        Timer.builder("payment.gateway.latency")
+                .tag("provider", getProvider())
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
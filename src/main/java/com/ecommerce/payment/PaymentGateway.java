@@ -0,0 +1,61 @@
+package com.ecommerce.payment;
+
+import com.ecommerce.entity.Payment;
+
+import java.math.BigDecimal;
+
+public interface PaymentGateway {
+
+    String getProvider();
+
+    // Must be idempotent per transactionId: charging the same transactionId again returns the first outcome
+    ChargeResult charge(ChargeRequest request);
+
+    // The outcome of an earlier charge, looked up by its idempotency key; DECLINED when the provider
+    // never saw the transactionId
+    ChargeResult lookup(String transactionId);
+
+    // Cancels an approved charge that must not be kept; true once the provider confirms it
+    boolean voidCharge(String transactionId, String providerReference);
+
+    // Returns the captured amount of an approved charge. Idempotent per transactionId like charge: asking
+    // again returns the first outcome, which is how a refund left UNKNOWN is resolved later
+    ChargeResult refund(String transactionId, BigDecimal amount);
+
+    record ChargeRequest(
+            String transactionId,
+            BigDecimal amount,
+            String currency,
+            Payment.PaymentMethod paymentMethod,
+            String providerReference
+    ) {}
+
+    enum Outcome {
+        APPROVED,
+        DECLINED,
+        // The call timed out or failed mid-flight: the provider may or may not have charged
+        UNKNOWN
+    }
+
+    record ChargeResult(
+            Outcome outcome,
+            String providerReference,
+            String failureReason
+    ) {
+        public static ChargeResult approved(String providerReference) {
+            return new ChargeResult(Outcome.APPROVED, providerReference, null);
+        }
+
+        public static ChargeResult declined(String failureReason) {
+            return new ChargeResult(Outcome.DECLINED, null, failureReason);
+        }
+
+        public static ChargeResult unknown(String reason) {
+            return new ChargeResult(Outcome.UNKNOWN, null, reason);
+        }
+
+        public boolean success() {
+            return outcome == Outcome.APPROVED;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.payment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class PaymentGatewayRegistry implements DisposableBean {
+
+    private static final String DEFAULTS_PREFIX = "app.payment.gateway-defaults.";
+    private static final String PROVIDER_PREFIX = "app.payment.gateways.";
+
+    private final Map<String, GuardedPaymentGateway> gateways = new HashMap<>();
+    private final String defaultProvider;
+
+    public PaymentGatewayRegistry(List<PaymentGateway> paymentGateways,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.payment.default-provider:fake}") String defaultProvider) {
+        this.defaultProvider = normalize(defaultProvider);
+
+        for (PaymentGateway gateway : paymentGateways) {
+            String provider = normalize(gateway.getProvider());
+            int maxConcurrentCalls = setting(environment, provider, "max-concurrent-calls", Integer.class, 20);
+            long timeoutMs = setting(environment, provider, "timeout-ms", Long.class, 5000L);
+            int failureThreshold = setting(environment, provider, "failure-threshold", Integer.class, 5);
+            long openDurationMs = setting(environment, provider, "open-duration-ms", Long.class, 30000L);
+
+            CircuitBreaker circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openDurationMs));
+            gateways.put(provider, new GuardedPaymentGateway(
+                    gateway, maxConcurrentCalls, Duration.ofMillis(timeoutMs), circuitBreaker, meterRegistry));
+        }
+
+        if (!gateways.containsKey(this.defaultProvider)) {
+            throw new IllegalStateException("No PaymentGateway registered for default provider: " + defaultProvider);
+        }
+    }
+
+    public String resolveProvider(String provider) {
+        String resolved = StringUtils.hasText(provider) ? normalize(provider) : defaultProvider;
+        if (!gateways.containsKey(resolved)) {
+            throw new IllegalArgumentException("Unsupported payment provider: " + provider);
+        }
+        return resolved;
+    }
+
+    public PaymentGateway.ChargeResult charge(String provider, PaymentGateway.ChargeRequest request) {
+        return gateways.get(resolveProvider(provider)).charge(request);
+    }
+
+    public PaymentGateway.ChargeResult lookup(String provider, String transactionId) {
+        return gateways.get(resolveProvider(provider)).lookup(transactionId);
+    }
+
+    public boolean voidCharge(String provider, String transactionId, String providerReference) {
+        return gateways.get(resolveProvider(provider)).voidCharge(transactionId, providerReference);
+    }
+
+    public PaymentGateway.ChargeResult refund(String provider, String transactionId, BigDecimal amount) {
+        return gateways.get(resolveProvider(provider)).refund(transactionId, amount);
+    }
+
+    @Override
+    public void destroy() {
+        gateways.values().forEach(GuardedPaymentGateway::shutdown);
+    }
+
+    private static <T> T setting(Environment environment, String provider, String key, Class<T> type, T fallback) {
+        T providerDefault = environment.getProperty(DEFAULTS_PREFIX + key, type, fallback);
+        return environment.getProperty(PROVIDER_PREFIX + provider + "." + key, type, providerDefault);
+    }
+
+    private static String normalize(String provider) {
+        return provider.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,8 +1,10 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Category;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,15 +18,20 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
+    // Category listings are served from the query cache; any write to categories invalidates them
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.parent IS NULL")
     List<Category> findRootCategories();
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.parent.id = :parentId")
     List<Category> findByParentId(@Param("parentId") Long parentId);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.active = true")
     List<Category> findAllActive();
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT c FROM Category c WHERE c.active = true AND c.parent IS NULL")
     List<Category> findActiveRootCategories();
 
@@ -0,0 +1,45 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.DailySalesStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesStatsRepository extends JpaRepository<DailySalesStats, LocalDate> {
+
+    @Modifying
+    @Query("UPDATE DailySalesStats s SET s.ordersCreated = s.ordersCreated + :count, " +
+            "s.ordersAmount = s.ordersAmount + :amount WHERE s.statDate = :statDate")
+    int incrementOrders(@Param("statDate") LocalDate statDate,
+                        @Param("count") long count,
+                        @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE DailySalesStats s SET s.paymentsCompleted = s.paymentsCompleted + :count, " +
+            "s.paymentsCompletedAmount = s.paymentsCompletedAmount + :amount WHERE s.statDate = :statDate")
+    int incrementCompletedPayments(@Param("statDate") LocalDate statDate,
+                                   @Param("count") long count,
+                                   @Param("amount") BigDecimal amount);
+
+    @Query("SELECT SUM(s.paymentsCompletedAmount) FROM DailySalesStats s " +
+            "WHERE s.statDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumCompletedPaymentsBetween(@Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT s FROM DailySalesStats s WHERE s.statDate BETWEEN :startDate AND :endDate ORDER BY s.statDate")
+    List<DailySalesStats> findBetween(@Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DailySalesStats s WHERE s.statDate >= :since AND s.statDate < :until ORDER BY s.statDate")
+    List<DailySalesStats> findBetweenForUpdate(@Param("since") LocalDate since, @Param("until") LocalDate until);
+}
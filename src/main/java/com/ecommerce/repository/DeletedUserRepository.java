@@ -0,0 +1,22 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.DeletedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, Long> {
+
+    @Query("SELECT d.userId FROM DeletedUser d WHERE d.deletedAt >= :since")
+    List<Long> findUserIdsDeletedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM DeletedUser d WHERE d.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,12 +1,21 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.entity.Order;
 import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -14,13 +23,81 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderId(@Param("orderId") Long orderId);
 
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.order.id IN :orderIds ORDER BY oi.order.id ASC, oi.id ASC")
+    List<OrderItem> findByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
     @Query("SELECT oi FROM OrderItem oi WHERE oi.product.id = :productId")
     List<OrderItem> findByProductId(@Param("productId") Long productId);
 
     @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.id = :productId")
     Long getTotalQuantitySoldByProductId(@Param("productId") Long productId);
 
-    @Query("SELECT oi.product.id, SUM(oi.quantity) as totalQuantity FROM OrderItem oi " +
-            "GROUP BY oi.product.id ORDER BY totalQuantity DESC")
-    List<Object[]> findBestSellingProducts();
+    @Query("SELECT oi.product.id AS productId, oi.product.category.id AS categoryId, SUM(oi.quantity) AS quantity " +
+            "FROM OrderItem oi WHERE oi.order.status <> :excludedStatus " +
+            "GROUP BY oi.product.id, oi.product.category.id")
+    List<ProductSalesView> sumQuantityByProduct(@Param("excludedStatus") Order.OrderStatus excludedStatus);
+
+    @Query("SELECT oi.product.id AS productId, oi.product.category.id AS categoryId, " +
+            "CAST(o.createdAt AS LocalDate) AS saleDate, SUM(oi.quantity) AS quantity " +
+            "FROM OrderItem oi JOIN oi.order o WHERE o.status <> :excludedStatus AND o.createdAt >= :since " +
+            "GROUP BY oi.product.id, oi.product.category.id, CAST(o.createdAt AS LocalDate)")
+    List<DailyProductSalesView> sumQuantityByProductAndDaySince(@Param("excludedStatus") Order.OrderStatus excludedStatus,
+                                                                @Param("since") LocalDateTime since);
+
+    @Query("SELECT oi.product.category.id AS categoryId, SUM(oi.quantity) AS quantity, SUM(oi.totalPrice) AS amount " +
+            "FROM OrderItem oi WHERE oi.order.id = :orderId GROUP BY oi.product.category.id")
+    List<CategorySalesView> sumByCategoryForOrder(@Param("orderId") Long orderId);
+
+    // One row per order and category, ordered by order, for every order placed, paid or refunded since
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT o.id AS orderId, o.createdAt AS createdAt, o.status AS orderStatus, " +
+            "p.paymentMethod AS paymentMethod, p.status AS paymentStatus, p.amount AS paymentAmount, " +
+            "p.paidAt AS paidAt, p.refundedAt AS refundedAt, c.id AS categoryId, " +
+            "SUM(oi.quantity) AS quantity, SUM(oi.totalPrice) AS amount " +
+            "FROM OrderItem oi JOIN oi.order o JOIN oi.product pr LEFT JOIN pr.category c LEFT JOIN o.payment p " +
+            "WHERE o.createdAt >= :since OR p.paidAt >= :since OR p.refundedAt >= :since " +
+            "GROUP BY o.id, o.createdAt, o.status, p.paymentMethod, p.status, p.amount, p.paidAt, p.refundedAt, c.id " +
+            "ORDER BY o.id ASC")
+    Stream<OrderCategorySalesView> streamSalesByOrderAndCategorySince(@Param("since") LocalDateTime since);
+
+    interface ProductSalesView {
+        Long getProductId();
+
+        Long getCategoryId();
+
+        Long getQuantity();
+    }
+
+    interface DailyProductSalesView extends ProductSalesView {
+        LocalDate getSaleDate();
+    }
+
+    interface CategorySalesView {
+        Long getCategoryId();
+
+        Long getQuantity();
+
+        BigDecimal getAmount();
+    }
+
+    interface OrderCategorySalesView extends CategorySalesView {
+        Long getOrderId();
+
+        LocalDateTime getCreatedAt();
+
+        Order.OrderStatus getOrderStatus();
+
+        Payment.PaymentMethod getPaymentMethod();
+
+        Payment.PaymentStatus getPaymentStatus();
+
+        BigDecimal getPaymentAmount();
+
+        LocalDateTime getPaidAt();
+
+        LocalDateTime getRefundedAt();
+    }
 }
@@ -1,28 +1,67 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    // Ownership checks only need the foreign key, not the order or its user
+    @Query("SELECT o.user.id FROM Order o WHERE o.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @Override
+    @EntityGraph(Order.LIST_GRAPH)
+    Page<Order> findAll(Pageable pageable);
+
+    @EntityGraph(Order.DETAIL_GRAPH)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findDetailedById(@Param("id") Long id);
+
+    @EntityGraph(Order.DETAIL_GRAPH)
+    @Query("SELECT o FROM Order o WHERE o.orderNumber = :orderNumber")
+    Optional<Order> findDetailedByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id ASC")
+    List<Order> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Order.LIST_GRAPH)
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     Page<Order> findByUserId(@Param("userId") Long userId, Pageable pageable);
 
-    @Query("SELECT o FROM Order o WHERE o.user.id = :userId")
-    List<Order> findAllByUserId(@Param("userId") Long userId);
+    @Query(value = "SELECT o.id AS id, o.orderNumber AS orderNumber, o.status AS status, " +
+            "o.totalAmount AS totalAmount, o.createdAt AS createdAt, " +
+            "(SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.order.id = o.id) AS totalItems " +
+            "FROM Order o WHERE o.user.id = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<OrderSummaryView> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
 
+    @EntityGraph(Order.LIST_GRAPH)
     @Query("SELECT o FROM Order o WHERE o.status = :status")
     Page<Order> findByStatus(@Param("status") Order.OrderStatus status, Pageable pageable);
 
@@ -33,6 +72,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                  @Param("endDate") LocalDateTime endDate);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH u.cart LEFT JOIN FETCH o.payment " +
+            "WHERE o.createdAt BETWEEN :startDate AND :endDate ORDER BY o.id ASC")
+    Stream<Order> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                    @Param("endDate") LocalDateTime endDate);
+
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findByUserIdAndDateRange(@Param("userId") Long userId,
                                           @Param("startDate") LocalDateTime startDate,
@@ -42,8 +90,55 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     long countByStatus(@Param("status") Order.OrderStatus status);
 
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = :status")
-    java.math.BigDecimal sumTotalAmountByStatus(@Param("status") Order.OrderStatus status);
+    BigDecimal sumTotalAmountByStatus(@Param("status") Order.OrderStatus status);
+
+    @Query("SELECT o.status, COUNT(o), SUM(o.totalAmount) FROM Order o GROUP BY o.status")
+    List<Object[]> aggregateByStatus();
+
+    @Query("SELECT CAST(o.createdAt AS LocalDate), COUNT(o), SUM(o.totalAmount) FROM Order o " +
+            "WHERE o.createdAt >= :since AND o.createdAt < :until GROUP BY CAST(o.createdAt AS LocalDate)")
+    List<Object[]> aggregateByCreatedDateBetween(@Param("since") LocalDateTime since,
+                                                 @Param("until") LocalDateTime until);
+
+    @Query("SELECT MIN(o.createdAt) FROM Order o")
+    LocalDateTime findEarliestCreatedAt();
+
+    @EntityGraph(Order.LIST_GRAPH)
+    @Query("SELECT o FROM Order o WHERE (o.updatedAt > :afterUpdatedAt " +
+            "OR (o.updatedAt = :afterUpdatedAt AND o.id > :afterId)) AND o.updatedAt < :before " +
+            "ORDER BY o.updatedAt ASC, o.id ASC")
+    List<Order> findChangedAfter(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                 @Param("afterId") Long afterId,
+                                 @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+
+    // lock.timeout -2 is Hibernate's SKIP LOCKED: rows claimed by another node are skipped, not waited on.
+    // Orders whose payment is being charged are left alone; a charge claimed after this read finds the
+    // order cancelled when it settles and is voided.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :cutoffDate " +
+            "AND NOT EXISTS (SELECT 1 FROM Payment p WHERE p.order = o AND p.status = 'PROCESSING') " +
+            "ORDER BY o.createdAt ASC")
+    List<Order> findStalePendingOrders(@Param("cutoffDate") LocalDateTime cutoffDate, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt WHERE o.id IN :orderIds")
+    int updateStatusByIds(@Param("orderIds") Collection<Long> orderIds,
+                          @Param("status") Order.OrderStatus status,
+                          @Param("updatedAt") LocalDateTime updatedAt);
+
+    interface OrderSummaryView {
+        Long getId();
+
+        String getOrderNumber();
+
+        Order.OrderStatus getStatus();
+
+        BigDecimal getTotalAmount();
+
+        Long getTotalItems();
 
-    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :cutoffDate")
-    List<Order> findStalePendingOrders(@Param("cutoffDate") LocalDateTime cutoffDate);
+        LocalDateTime getCreatedAt();
+    }
 }
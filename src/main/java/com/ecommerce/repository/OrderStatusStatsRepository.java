@@ -0,0 +1,29 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderStatusStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface OrderStatusStatsRepository extends JpaRepository<OrderStatusStats, Order.OrderStatus> {
+
+    @Modifying
+    @Query("UPDATE OrderStatusStats s SET s.orderCount = s.orderCount + :count, " +
+            "s.totalAmount = s.totalAmount + :amount WHERE s.status = :status")
+    int increment(@Param("status") Order.OrderStatus status,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderStatusStats s ORDER BY s.status")
+    List<OrderStatusStats> findAllForUpdate();
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<OutboxEvent> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT MIN(e.id) FROM OutboxEvent e")
+    Long findMinimumId();
+
+    // The database clock, so relays on different nodes agree on how old a gap is
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentDatabaseTime();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upToId AND e.createdAt < :cutoffDate")
+    int deletePublishedBefore(@Param("upToId") Long upToId, @Param("cutoffDate") LocalDateTime cutoffDate);
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OutboxGap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxGapRepository extends JpaRepository<OutboxGap, Long> {
+
+    @Query("SELECT g FROM OutboxGap g WHERE g.consumer = :consumer AND g.eventId > :afterId " +
+            "ORDER BY g.eventId ASC")
+    List<OutboxGap> findByConsumerAfter(@Param("consumer") String consumer, @Param("afterId") Long afterId);
+
+    @Modifying
+    @Query("DELETE FROM OutboxGap g WHERE g.consumer = :consumer AND g.eventId <= :upToId")
+    int deleteByConsumerUpTo(@Param("consumer") String consumer, @Param("upToId") Long upToId);
+}
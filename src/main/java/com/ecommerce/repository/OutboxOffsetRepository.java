@@ -0,0 +1,22 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OutboxOffset;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxOffset o WHERE o.consumer = :consumer")
+    Optional<OutboxOffset> findByConsumerForUpdate(@Param("consumer") String consumer);
+
+    @Query("SELECT MIN(o.lastEventId) FROM OutboxOffset o")
+    Long findMinimumLastEventId();
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Payment;
+import com.ecommerce.entity.PaymentMethodStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PaymentMethodStatsRepository extends JpaRepository<PaymentMethodStats, Payment.PaymentMethod> {
+
+    @Modifying
+    @Query("UPDATE PaymentMethodStats s SET s.completedCount = s.completedCount + :count, " +
+            "s.completedAmount = s.completedAmount + :amount WHERE s.paymentMethod = :method")
+    int increment(@Param("method") Payment.PaymentMethod method,
+                  @Param("count") long count,
+                  @Param("amount") BigDecimal amount);
+
+    @Query("SELECT SUM(s.completedAmount) FROM PaymentMethodStats s")
+    BigDecimal sumCompletedAmount();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PaymentMethodStats s ORDER BY s.paymentMethod")
+    List<PaymentMethodStats> findAllForUpdate();
+}
@@ -1,16 +1,22 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -19,6 +25,26 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByOrderId(Long orderId);
 
+    @Query("SELECT p.order.user.id FROM Payment p WHERE p.id = :id")
+    Optional<Long> findOrderUserIdById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    // Compare-and-set on the status column: returns 0 when another caller already moved the payment on
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :to, p.updatedAt = :updatedAt WHERE p.id = :id AND p.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Payment.PaymentStatus from,
+                         @Param("to") Payment.PaymentStatus to,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.updatedAt < :before ORDER BY p.updatedAt ASC")
+    List<Long> findIdsByStatusUpdatedBefore(@Param("status") Payment.PaymentStatus status,
+                                            @Param("before") LocalDateTime before,
+                                            Pageable pageable);
+
     @Query("SELECT p FROM Payment p WHERE p.status = :status")
     Page<Payment> findByStatus(@Param("status") Payment.PaymentStatus status, Pageable pageable);
 
@@ -29,18 +55,47 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                    @Param("endDate") LocalDateTime endDate);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order " +
+            "WHERE p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.id ASC")
+    Stream<Payment> streamByDateRange(@Param("startDate") LocalDateTime startDate,
+                                      @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE (p.updatedAt > :afterUpdatedAt " +
+            "OR (p.updatedAt = :afterUpdatedAt AND p.id > :afterId)) AND p.updatedAt < :before " +
+            "ORDER BY p.updatedAt ASC, p.id ASC")
+    List<Payment> findChangedAfter(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                   @Param("afterId") Long afterId,
+                                   @Param("before") LocalDateTime before,
+                                   Pageable pageable);
+
     @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt BETWEEN :startDate AND :endDate")
     List<Payment> findByStatusAndDateRange(@Param("status") Payment.PaymentStatus status,
                                             @Param("startDate") LocalDateTime startDate,
                                             @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED'")
+    // A REFUNDING payment still counts as completed: the money stays captured until the provider confirms
+    // the refund, and only then does onPaymentRefunded take it off the rollups
+    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status IN ('COMPLETED', 'REFUNDING')")
     java.math.BigDecimal getTotalCompletedPayments();
 
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.paidAt BETWEEN :startDate AND :endDate")
+    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status IN ('COMPLETED', 'REFUNDING') AND p.paidAt BETWEEN :startDate AND :endDate")
     java.math.BigDecimal getTotalCompletedPaymentsByDateRange(@Param("startDate") LocalDateTime startDate,
                                                                @Param("endDate") LocalDateTime endDate);
 
+    @Query("SELECT p.paymentMethod, COUNT(p), SUM(p.amount) FROM Payment p " +
+            "WHERE p.status IN ('COMPLETED', 'REFUNDING') GROUP BY p.paymentMethod")
+    List<Object[]> aggregateCompletedByMethod();
+
+    @Query("SELECT CAST(p.paidAt AS LocalDate), COUNT(p), SUM(p.amount) FROM Payment p " +
+            "WHERE p.status IN ('COMPLETED', 'REFUNDING') AND p.paidAt >= :since AND p.paidAt < :until " +
+            "GROUP BY CAST(p.paidAt AS LocalDate)")
+    List<Object[]> aggregateCompletedByPaidDateBetween(@Param("since") LocalDateTime since,
+                                                       @Param("until") LocalDateTime until);
+
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     long countByStatus(@Param("status") Payment.PaymentStatus status);
 }
@@ -1,14 +1,20 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,39 +25,65 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     boolean existsBySku(String sku);
 
+    // List queries fetch-join the category; additional images are batch-loaded when first touched
+    @Override
+    @EntityGraph(Product.LIST_GRAPH)
+    Page<Product> findAll(Pageable pageable);
+
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.active = true")
     Page<Product> findAllActive(Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.active = true")
     Page<Product> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     @Query("SELECT p FROM Product p WHERE p.featured = true AND p.active = true")
     List<Product> findFeaturedProducts();
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0 AND p.active = true")
     Page<Product> findInStock(Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold AND p.active = true")
     List<Product> findLowStockProducts(@Param("threshold") int threshold);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
             "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.active = true")
     Page<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
                                     @Param("maxPrice") BigDecimal maxPrice,
                                     Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.price BETWEEN :minPrice AND :maxPrice AND p.active = true")
     Page<Product> findByCategoryAndPriceRange(@Param("categoryId") Long categoryId,
                                                @Param("minPrice") BigDecimal minPrice,
                                                @Param("maxPrice") BigDecimal maxPrice,
                                                Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.createdAt DESC")
     List<Product> findNewestProducts(Pageable pageable);
 
+    @EntityGraph(Product.LIST_GRAPH)
     @Query("SELECT p FROM Product p WHERE p.active = true ORDER BY p.rating DESC NULLS LAST")
     List<Product> findTopRatedProducts(Pageable pageable);
+
+    // A bulk HQL update makes Hibernate evict the whole Product cache region and invalidate cached
+    // product queries after commit, so restored stock is never served stale from the cache
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + " +
+            "(SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.id = p.id AND oi.order.id IN :orderIds), " +
+            "p.updatedAt = :updatedAt " +
+            "WHERE p.id IN (SELECT oi.product.id FROM OrderItem oi WHERE oi.order.id IN :orderIds)")
+    int restoreStockForOrders(@Param("orderIds") Collection<Long> orderIds,
+                              @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,4 +30,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :name, '%')) " +
             "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<User> searchByName(@Param("name") String name);
+
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion, u.enabled AS enabled FROM User u " +
+            "WHERE u.tokenVersion > 0 OR u.enabled = false")
+    List<TokenStateView> findRevokedTokenStates();
+
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion, u.enabled AS enabled FROM User u " +
+            "WHERE u.updatedAt >= :since")
+    List<TokenStateView> findTokenStatesUpdatedSince(@Param("since") LocalDateTime since);
+
+    interface TokenStateView {
+        Long getId();
+
+        Integer getTokenVersion();
+
+        Boolean getEnabled();
+    }
 }
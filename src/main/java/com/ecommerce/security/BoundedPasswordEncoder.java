@@ -0,0 +1,126 @@
+package com.ecommerce.security;
+
+import com.ecommerce.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs password hashing on a small dedicated pool so a login/registration burst cannot take every CPU
+// away from the rest of the API. Admission is decided up front from the queue depth and the observed
+// hash time: if a new request could not start within maxQueueWait it is rejected immediately (503)
+// instead of waiting and timing out.
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxQueueWaitNanos;
+    private final AtomicLong averageHashNanos;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter queueFullRejections;
+    private final Counter expectedWaitRejections;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration maxQueueWait, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        // Seeded with a typical bcrypt(10) cost until real measurements come in
+        this.averageHashNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(80));
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.encodeTimer = Timer.builder("password.hash.duration")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash.duration")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("password.hash.rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.expectedWaitRejections = Counter.builder("password.hash.rejected")
+                .tag("reason", "expected_wait")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    // Only inspects the stored hash's prefix/cost, no hashing, so it stays on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task, Timer timer) {
+        long expectedWait = (long) executor.getQueue().size() * averageHashNanos.get() / threads;
+        if (expectedWait > maxQueueWaitNanos) {
+            expectedWaitRejections.increment();
+            throw new PasswordHashingUnavailableException("too many pending password checks", RETRY_AFTER_SECONDS);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    timer.record(elapsed, TimeUnit.NANOSECONDS);
+                    // Exponentially weighted moving average, weight 1/8 for the newest sample
+                    averageHashNanos.getAndUpdate(average -> average + (elapsed - average) / 8);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            throw new PasswordHashingUnavailableException("password check queue is full", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingUnavailableException("password check was interrupted", RETRY_AFTER_SECONDS);
+        }
+    }
+}
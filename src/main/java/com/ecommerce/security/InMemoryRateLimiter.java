@@ -0,0 +1,83 @@
+package com.ecommerce.security;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets kept as a single "theoretical arrival time" per key (GCRA): taking a token is one CAS on
+// an AtomicLong, with no refill thread and no lock. A bucket whose arrival time has passed is full and
+// indistinguishable from a new one, so idle buckets can be dropped at any time without changing results.
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final int maxBuckets;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(int maxBuckets, LongSupplier nanoClock) {
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("maxBuckets must be at least 1");
+        }
+        this.maxBuckets = maxBuckets;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Decision tryConsume(String key, Limit limit) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        long interval = Math.max(1, limit.period().toNanos() / limit.capacity());
+        long burst = interval * limit.capacity();
+        while (true) {
+            long arrival = bucket.get();
+            long nextArrival = Math.max(arrival, now) + interval;
+            long backlog = nextArrival - now;
+            if (backlog > burst) {
+                return new Decision(false, limit.capacity(), 0,
+                        Duration.ofNanos(arrival - now), Duration.ofNanos(backlog - burst));
+            }
+            if (bucket.compareAndSet(arrival, nextArrival)) {
+                return new Decision(true, limit.capacity(), (burst - backlog) / interval,
+                        Duration.ofNanos(backlog), Duration.ZERO);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}",
+            initialDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    // Idle buckets go first; if every bucket is busy an arbitrary tenth is dropped, which at worst gives
+    // those clients a fresh allowance. Keeps memory bounded when keys are spoofed or churn fast.
+    private synchronized void evict(long now) {
+        if (buckets.size() < maxBuckets) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+
+        int toRemove = buckets.size() - maxBuckets + Math.max(1, maxBuckets / 10);
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
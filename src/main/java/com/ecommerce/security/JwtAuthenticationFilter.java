@@ -1,28 +1,40 @@
 package com.ecommerce.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean statelessPrincipal;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService,
+                                   VerifiedTokenCache verifiedTokenCache,
+                                   @Value("${app.jwt.stateless-principal:true}") boolean statelessPrincipal) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -30,14 +42,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            UserPrincipal tokenPrincipal = StringUtils.hasText(jwt) ? verifyToken(jwt) : null;
+            UserPrincipal principal = tokenPrincipal != null ? resolvePrincipal(tokenPrincipal) : null;
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                authentication.setDetails(authenticationDetailsSource.buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
@@ -48,6 +59,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserPrincipal verifyToken(String jwt) {
+        UserPrincipal cached = verifiedTokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<Claims> claims = tokenProvider.parseClaims(jwt);
+        if (claims.isEmpty()) {
+            return null;
+        }
+        UserPrincipal tokenPrincipal = UserPrincipal.fromClaims(claims.get());
+        if (claims.get().getExpiration() != null) {
+            verifiedTokenCache.put(jwt, tokenPrincipal, claims.get().getExpiration().toInstant());
+        }
+        return tokenPrincipal;
+    }
+
+    // Stateless mode trusts the signed claims and checks revocation in memory; otherwise the user is
+    // reloaded, which also catches changes the revocation state has not seen yet
+    private UserPrincipal resolvePrincipal(UserPrincipal tokenPrincipal) {
+        if (statelessPrincipal) {
+            return tokenRevocationService.isRevoked(tokenPrincipal.getId(), tokenPrincipal.getTokenVersion())
+                    ? null
+                    : tokenPrincipal;
+        }
+
+        UserPrincipal storedPrincipal = (UserPrincipal) userDetailsService.loadUserByUsername(tokenPrincipal.getEmail());
+        if (!storedPrincipal.isEnabled() || tokenPrincipal.getTokenVersion() < storedPrincipal.getTokenVersion()) {
+            return null;
+        }
+        return storedPrincipal;
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
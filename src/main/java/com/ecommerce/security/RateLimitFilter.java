@@ -0,0 +1,130 @@
+package com.ecommerce.security;
+
+import com.ecommerce.dto.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Throttles API calls per route group, keyed by the authenticated user or else the client address.
+// Runs after JWT authentication so logged-in users behind one NAT get separate allowances.
+// Every limited response carries RateLimit-Limit/Remaining/Reset; rejected ones also Retry-After.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String GROUPS_PREFIX = "app.rate-limit.groups.";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<RouteGroup> groups = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           Environment environment,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.group-order:}") List<String> groupOrder) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+
+        for (String name : groupOrder) {
+            String prefix = GROUPS_PREFIX + name.trim() + ".";
+            String[] patterns = environment.getProperty(prefix + "patterns", String[].class);
+            if (patterns == null || patterns.length == 0) {
+                throw new IllegalStateException("No patterns configured for rate limit group: " + name);
+            }
+            long capacity = environment.getProperty(prefix + "capacity", Long.class, 600L);
+            long periodMs = environment.getProperty(prefix + "period-ms", Long.class, 60000L);
+            Counter rejected = Counter.builder("http.server.requests.rate_limited")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("group", name.trim())
+                    .register(meterRegistry);
+            groups.add(new RouteGroup(name.trim(), List.of(patterns),
+                    new RateLimiter.Limit(capacity, Duration.ofMillis(periodMs)), rejected));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteGroup group = findGroup(request.getRequestURI().substring(request.getContextPath().length()));
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryConsume(group.name() + ":" + clientKey(request), group.limit());
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.resetAfter())));
+        response.setHeader("RateLimit-Policy",
+                decision.limit() + ";w=" + toSeconds(group.limit().period()));
+
+        if (!decision.allowed()) {
+            group.rejected().increment();
+            long retryAfter = Math.max(1, toSeconds(decision.retryAfter()));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Too many requests, retry after " + retryAfter + " seconds"));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RouteGroup findGroup(String path) {
+        for (RouteGroup group : groups) {
+            for (String pattern : group.patterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Uses the connection's remote address; X-Forwarded-For is only honoured when the server is configured
+    // to trust it (server.forward-headers-strategy), otherwise any client could pick its own bucket
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(Duration duration) {
+        return (duration.toMillis() + 999) / 1000;
+    }
+
+    private record RouteGroup(String name, List<String> patterns, RateLimiter.Limit limit, Counter rejected) {
+    }
+}
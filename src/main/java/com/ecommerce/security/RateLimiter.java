@@ -0,0 +1,23 @@
+package com.ecommerce.security;
+
+import java.time.Duration;
+
+public interface RateLimiter {
+
+    Decision tryConsume(String key, Limit limit);
+
+    record Limit(long capacity, Duration period) {
+        public Limit {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be at least 1");
+            }
+            if (period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("period must be positive");
+            }
+        }
+    }
+
+    // resetAfter: time until the bucket is full again; retryAfter: time until the next request is allowed
+    record Decision(boolean allowed, long limit, long remaining, Duration resetAfter, Duration retryAfter) {
+    }
+}
@@ -1,9 +1,8 @@
 package com.ecommerce.security;
 
-import com.ecommerce.entity.Order;
-import com.ecommerce.entity.Payment;
 import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.service.OrderService;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -13,10 +12,13 @@ public class SecurityService {
 
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
+    private final OrderService orderService;
 
-    public SecurityService(OrderRepository orderRepository, PaymentRepository paymentRepository) {
+    public SecurityService(OrderRepository orderRepository, PaymentRepository paymentRepository,
+                           OrderService orderService) {
         this.orderRepository = orderRepository;
         this.paymentRepository = paymentRepository;
+        this.orderService = orderService;
     }
 
     public boolean isCurrentUser(Long userId) {
@@ -30,19 +32,31 @@ public class SecurityService {
             return false;
         }
 
-        return orderRepository.findById(orderId)
-                .map(order -> order.getUser().getId().equals(currentUser.getId()))
+        return orderRepository.findUserIdById(orderId)
+                .map(currentUser.getId()::equals)
                 .orElse(false);
     }
 
-    public boolean isOrderOwnerByNumber(String orderNumber) {
+    // For endpoints that return the order itself: the check loads it and the service call reuses it
+    public boolean canReadOrder(Long orderId) {
         UserPrincipal currentUser = getCurrentUser();
         if (currentUser == null) {
             return false;
         }
 
-        return orderRepository.findByOrderNumber(orderNumber)
-                .map(order -> order.getUser().getId().equals(currentUser.getId()))
+        return orderService.prefetchOrder(orderId)
+                .map(order -> currentUser.getId().equals(order.userId()))
+                .orElse(false);
+    }
+
+    public boolean canReadOrderByNumber(String orderNumber) {
+        UserPrincipal currentUser = getCurrentUser();
+        if (currentUser == null) {
+            return false;
+        }
+
+        return orderService.prefetchOrderByNumber(orderNumber)
+                .map(order -> currentUser.getId().equals(order.userId()))
                 .orElse(false);
     }
 
@@ -52,8 +66,8 @@ public class SecurityService {
             return false;
         }
 
-        return paymentRepository.findById(paymentId)
-                .map(payment -> payment.getOrder().getUser().getId().equals(currentUser.getId()))
+        return paymentRepository.findOrderUserIdById(paymentId)
+                .map(currentUser.getId()::equals)
                 .orElse(false);
     }
 
@@ -0,0 +1,154 @@
+package com.ecommerce.security;
+
+import com.ecommerce.entity.DeletedUser;
+import com.ecommerce.entity.User;
+import com.ecommerce.repository.DeletedUserRepository;
+import com.ecommerce.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory revocation state so stateless JWT authentication needs no database read per request:
+// the minimum valid token version per user (bumped on password/role/enabled changes) and a denylist
+// of disabled or deleted users. Only users with revoked tokens are tracked, which keeps it small.
+// Local changes apply on commit; changes made on other nodes are picked up by a periodic poll, which
+// for deleted users reads the deleted_users tombstones since their users rows no longer exist.
+@Component
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final UserRepository userRepository;
+    private final DeletedUserRepository deletedUserRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final long refreshOverlapMs;
+    private final Duration accessTokenLifetime;
+
+    private final Map<Long, Integer> minimumTokenVersions = new ConcurrentHashMap<>();
+    private final Set<Long> deniedUsers = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime lastRefresh;
+
+    public TokenRevocationService(UserRepository userRepository, DeletedUserRepository deletedUserRepository,
+                                  VerifiedTokenCache verifiedTokenCache,
+                                  @Value("${app.jwt.revocation.refresh-overlap-ms:60000}") long refreshOverlapMs,
+                                  @Value("${app.jwt.expiration-ms:900000}") long accessTokenExpirationMs) {
+        this.userRepository = userRepository;
+        this.deletedUserRepository = deletedUserRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.refreshOverlapMs = refreshOverlapMs;
+        this.accessTokenLifetime = Duration.ofMillis(accessTokenExpirationMs);
+    }
+
+    public boolean isRevoked(Long userId, int tokenVersion) {
+        if (deniedUsers.contains(userId)) {
+            return true;
+        }
+        Integer minimumVersion = minimumTokenVersions.get(userId);
+        return minimumVersion != null && tokenVersion < minimumVersion;
+    }
+
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+        int tokenVersion = user.getTokenVersion();
+        boolean enabled = user.isEnabled();
+        afterCommit(() -> apply(userId, tokenVersion, enabled));
+    }
+
+    // Writes the tombstone in the deleting transaction, so it commits or rolls back with the delete
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserDeleted(Long userId) {
+        deletedUserRepository.save(new DeletedUser(userId, LocalDateTime.now()));
+        afterCommit(() -> deny(userId));
+    }
+
+    @PostConstruct
+    void loadRevokedUsers() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        userRepository.findRevokedTokenStates().forEach(this::apply);
+        // Tokens of users deleted longer ago than that have expired on their own
+        deletedUserRepository.findUserIdsDeletedSince(startedAt.minus(accessTokenLifetime)).forEach(this::deny);
+        lastRefresh = startedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.refresh-interval-ms:15000}",
+            initialDelayString = "${app.jwt.revocation.refresh-interval-ms:15000}")
+    public void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            // Overlap the previous window to tolerate clock skew between nodes and late commits
+            LocalDateTime since = lastRefresh.minus(Duration.ofMillis(refreshOverlapMs));
+            List<UserRepository.TokenStateView> changed = userRepository.findTokenStatesUpdatedSince(since);
+            changed.forEach(this::apply);
+            deletedUserRepository.findUserIdsDeletedSince(since).forEach(this::deny);
+            lastRefresh = startedAt;
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh token revocation state", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}",
+            initialDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeTombstones() {
+        // Kept for the refresh overlap on top of the token lifetime, so a slow poll still sees them
+        LocalDateTime cutoff = LocalDateTime.now()
+                .minus(accessTokenLifetime)
+                .minus(Duration.ofMillis(refreshOverlapMs));
+        int deleted = deletedUserRepository.deleteDeletedBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} deleted-user tombstones", deleted);
+        }
+    }
+
+    private void apply(UserRepository.TokenStateView state) {
+        apply(state.getId(), state.getTokenVersion(), state.getEnabled());
+    }
+
+    private void apply(Long userId, int tokenVersion, boolean enabled) {
+        if (tokenVersion > 0) {
+            Integer previous = minimumTokenVersions.get(userId);
+            minimumTokenVersions.merge(userId, tokenVersion, Math::max);
+            if (previous == null || previous < tokenVersion) {
+                verifiedTokenCache.invalidateUser(userId);
+            }
+        }
+        if (enabled) {
+            deniedUsers.remove(userId);
+        } else if (deniedUsers.add(userId)) {
+            verifiedTokenCache.invalidateUser(userId);
+        }
+    }
+
+    private void deny(Long userId) {
+        if (deniedUsers.add(userId)) {
+            verifiedTokenCache.invalidateUser(userId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ecommerce.security;
 
 import com.ecommerce.entity.User;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,10 +17,11 @@ public class UserPrincipal implements UserDetails {
     private final String password;
     private final User.Role role;
     private final boolean enabled;
+    private final int tokenVersion;
     private final Collection<? extends GrantedAuthority> authorities;
 
     public UserPrincipal(Long id, String username, String email, String password,
-                         User.Role role, boolean enabled,
+                         User.Role role, boolean enabled, int tokenVersion,
                          Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
@@ -27,6 +29,7 @@ public class UserPrincipal implements UserDetails {
         this.password = password;
         this.role = role;
         this.enabled = enabled;
+        this.tokenVersion = tokenVersion;
         this.authorities = authorities;
     }
 
@@ -42,10 +45,29 @@ public class UserPrincipal implements UserDetails {
                 user.getPassword(),
                 user.getRole(),
                 user.isEnabled(),
+                user.getTokenVersion(),
                 authorities
         );
     }
 
+    // Rebuilds the principal from verified token claims without touching the database. Password and
+    // username are not in the token; the principal is only used for authorization after verification.
+    public static UserPrincipal fromClaims(Claims claims) {
+        User.Role role = User.Role.valueOf(claims.get(JwtTokenProvider.ROLE_CLAIM, String.class));
+        Integer tokenVersion = claims.get(JwtTokenProvider.TOKEN_VERSION_CLAIM, Integer.class);
+
+        return new UserPrincipal(
+                claims.get(JwtTokenProvider.ID_CLAIM, Long.class),
+                null,
+                claims.getSubject(),
+                null,
+                role,
+                true,
+                tokenVersion != null ? tokenVersion : 0,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.name()))
+        );
+    }
+
     public Long getId() {
         return id;
     }
@@ -58,6 +80,10 @@ public class UserPrincipal implements UserDetails {
         return role;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,76 @@
+package com.ecommerce.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bounded cache of already verified tokens, so a client resending the same token skips HMAC verification
+// and claim decoding. Keyed by SHA-256 of the token so raw bearer tokens are never kept in memory.
+// Entries expire with their token and are dropped when the user's tokens are revoked.
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(@Value("${app.jwt.verified-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public UserPrincipal get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = TokenHashing.sha256Hex(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(Instant.now())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.principal();
+    }
+
+    public void put(String token, UserPrincipal principal, Instant expiresAt) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(TokenHashing.sha256Hex(token), new Entry(principal, expiresAt));
+    }
+
+    public void invalidateUser(Long userId) {
+        entries.values().removeIf(entry -> entry.principal().getId().equals(userId));
+    }
+
+    // Drops expired entries first; if that frees too little, drops an arbitrary tenth of the cache.
+    // Cheaper than strict LRU bookkeeping on every hit, and a dropped entry only costs one re-verification.
+    private synchronized void evict() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(UserPrincipal principal, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.service;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+// Writes export rows as an Arrow IPC file (Feather v2): one typed, nullable column per record component
+// and one record batch per part. Money is Decimal(12, 2) like the source columns; timestamps are
+// zone-less microseconds, matching the LocalDateTime values the database stores.
+final class ArrowPartWriter {
+
+    static final String EXTENSION = "arrow";
+
+    private static final int MONEY_PRECISION = 12;
+    private static final int MONEY_SCALE = 2;
+
+    private final BufferAllocator allocator;
+
+    ArrowPartWriter(BufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    <R extends Record> void write(List<R> rows, Class<R> rowType, OutputStream outputStream) throws IOException {
+        RecordComponent[] columns = rowType.getRecordComponents();
+        Schema schema = new Schema(Arrays.stream(columns)
+                .map(column -> Field.nullable(column.getName(), arrowType(column.getType())))
+                .toList());
+
+        try (VectorSchemaRoot batch = VectorSchemaRoot.create(schema, allocator)) {
+            batch.allocateNew();
+            for (int column = 0; column < columns.length; column++) {
+                FieldVector vector = batch.getVector(column);
+                for (int row = 0; row < rows.size(); row++) {
+                    // Slots left unset stay null: allocateNew zeroes the validity buffers
+                    Object value = read(columns[column], rows.get(row));
+                    if (value != null) {
+                        set(vector, row, value);
+                    }
+                }
+            }
+            batch.setRowCount(rows.size());
+
+            try (ArrowFileWriter writer = new ArrowFileWriter(batch, null, Channels.newChannel(outputStream))) {
+                writer.start();
+                writer.writeBatch();
+                writer.end();
+            }
+        }
+    }
+
+    private static ArrowType arrowType(Class<?> type) {
+        if (type == Long.class || type == long.class) {
+            return new ArrowType.Int(64, true);
+        }
+        if (type == Integer.class || type == int.class) {
+            return new ArrowType.Int(32, true);
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return ArrowType.Bool.INSTANCE;
+        }
+        if (type == BigDecimal.class) {
+            return new ArrowType.Decimal(MONEY_PRECISION, MONEY_SCALE, 128);
+        }
+        if (type == LocalDateTime.class) {
+            return new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+        }
+        if (type == LocalDate.class) {
+            return new ArrowType.Date(DateUnit.DAY);
+        }
+        // Strings and enums
+        return ArrowType.Utf8.INSTANCE;
+    }
+
+    private static void set(FieldVector vector, int index, Object value) {
+        switch (vector) {
+            case BigIntVector longs -> longs.setSafe(index, (Long) value);
+            case IntVector ints -> ints.setSafe(index, (Integer) value);
+            case BitVector bits -> bits.setSafe(index, (Boolean) value ? 1 : 0);
+            case DecimalVector decimals ->
+                    decimals.setSafe(index, ((BigDecimal) value).setScale(MONEY_SCALE, RoundingMode.HALF_UP));
+            case TimeStampMicroVector timestamps -> timestamps.setSafe(index, epochMicros((LocalDateTime) value));
+            case DateDayVector dates -> dates.setSafe(index, Math.toIntExact(((LocalDate) value).toEpochDay()));
+            case VarCharVector strings -> strings.setSafe(index, text(value).getBytes(StandardCharsets.UTF_8));
+            default -> throw new IllegalStateException("Unsupported export column type " + vector.getField());
+        }
+    }
+
+    private static Object read(RecordComponent column, Record row) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not read export column " + column.getName(), e);
+        }
+    }
+
+    private static long epochMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static String text(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BestSellerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BestSellerService.class);
+
+    public static final int MAX_LIMIT = 100;
+    private static final int MAX_WINDOW_DAYS = 30;
+
+    public enum Window {
+        DAY(1),
+        WEEK(7),
+        MONTH(30),
+        ALL_TIME(0);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public int getDays() {
+            return days;
+        }
+    }
+
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+
+    private volatile Counters counters = new Counters();
+
+    public BestSellerService(OrderItemRepository orderItemRepository, ProductRepository productRepository) {
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductDto.BestSeller> getBestSellers(Long categoryId, Window window, int limit) {
+        int size = Math.clamp(limit, 1, MAX_LIMIT);
+        Map<Long, Long> totals = counters.totals(window, categoryId);
+
+        // Over-fetch a little so inactive or deleted products can be skipped without a second round trip
+        List<Map.Entry<Long, Long>> ranked = topN(totals, size * 2);
+        Map<Long, Product> products = productRepository.findAllById(ranked.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductDto.BestSeller> bestSellers = new ArrayList<>(size);
+        for (Map.Entry<Long, Long> entry : ranked) {
+            Product product = products.get(entry.getKey());
+            if (product != null && product.isActive()) {
+                bestSellers.add(ProductDto.BestSeller.of(product, entry.getValue()));
+                if (bestSellers.size() == size) {
+                    break;
+                }
+            }
+        }
+        return bestSellers;
+    }
+
+    public void onOrderCreated(Order order) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        List<Sale> sales = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            sales.add(new Sale(product.getId(), categoryId, day, item.getQuantity()));
+        }
+        applyAfterCommit(sales);
+    }
+
+    // Must be called while the orders are still attached, their items are loaded in batches
+    public void onOrdersCancelled(Collection<Order> orders) {
+        List<Sale> sales = new ArrayList<>();
+        for (Order order : orders) {
+            LocalDate day = order.getCreatedAt().toLocalDate();
+            for (OrderItem item : order.getOrderItems()) {
+                sales.add(new Sale(item.getProduct().getId(), null, day, -item.getQuantity()));
+            }
+        }
+        applyAfterCommit(sales);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    // Counters only move after commit, so a rolled-back order never shows up. Anything that slips
+    // through (e.g. an increment racing a rebuild) is corrected by the next periodic rebuild.
+    @Scheduled(fixedDelayString = "${app.best-sellers.rebuild-interval-ms:900000}",
+            initialDelayString = "${app.best-sellers.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        try {
+            Counters rebuilt = new Counters();
+            LocalDate firstDay = LocalDate.now().minusDays(MAX_WINDOW_DAYS - 1);
+
+            orderItemRepository.sumQuantityByProduct(Order.OrderStatus.CANCELLED).forEach(row -> {
+                rebuilt.rememberCategory(row.getProductId(), row.getCategoryId());
+                rebuilt.allTime.computeIfAbsent(row.getProductId(), id -> new LongAdder()).add(row.getQuantity());
+            });
+            orderItemRepository.sumQuantityByProductAndDaySince(Order.OrderStatus.CANCELLED, firstDay.atStartOfDay())
+                    .forEach(row -> rebuilt.daily
+                            .computeIfAbsent(row.getSaleDate(), d -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(row.getProductId(), id -> new LongAdder())
+                            .add(row.getQuantity()));
+
+            counters = rebuilt;
+            log.debug("Rebuilt best-seller counters for {} products", rebuilt.allTime.size());
+        } catch (RuntimeException ex) {
+            log.warn("Best-seller counter rebuild failed", ex);
+        }
+    }
+
+    private void applyAfterCommit(List<Sale> sales) {
+        if (sales.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counters.apply(sales);
+                }
+            });
+        } else {
+            counters.apply(sales);
+        }
+    }
+
+    private static List<Map.Entry<Long, Long>> topN(Map<Long, Long> totals, int n) {
+        Comparator<Map.Entry<Long, Long>> byQuantity = Map.Entry.<Long, Long>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+
+        // Min-heap of size n: O(products * log n) instead of sorting every product
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(n + 1, byQuantity);
+        for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            heap.offer(entry);
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Long>> ranked = new ArrayList<>(heap);
+        ranked.sort(byQuantity.reversed());
+        return ranked;
+    }
+
+    private record Sale(Long productId, Long categoryId, LocalDate day, long quantity) {
+    }
+
+    // Exact per-product counters: the catalogue is small enough that a sketch would only add error
+    private static final class Counters {
+
+        private final Map<Long, LongAdder> allTime = new ConcurrentHashMap<>();
+        private final Map<LocalDate, Map<Long, LongAdder>> daily = new ConcurrentHashMap<>();
+        private final Map<Long, Long> productCategories = new ConcurrentHashMap<>();
+
+        void apply(List<Sale> sales) {
+            LocalDate oldestKept = LocalDate.now().minusDays(MAX_WINDOW_DAYS - 1);
+            for (Sale sale : sales) {
+                rememberCategory(sale.productId(), sale.categoryId());
+                allTime.computeIfAbsent(sale.productId(), id -> new LongAdder()).add(sale.quantity());
+                if (!sale.day().isBefore(oldestKept)) {
+                    daily.computeIfAbsent(sale.day(), d -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(sale.productId(), id -> new LongAdder())
+                            .add(sale.quantity());
+                }
+            }
+            daily.keySet().removeIf(day -> day.isBefore(oldestKept));
+        }
+
+        void rememberCategory(Long productId, Long categoryId) {
+            if (categoryId != null) {
+                productCategories.put(productId, categoryId);
+            }
+        }
+
+        Map<Long, Long> totals(Window window, Long categoryId) {
+            Map<Long, Long> totals = new HashMap<>();
+            if (window == Window.ALL_TIME) {
+                allTime.forEach((productId, count) -> addIfInCategory(totals, productId, count.sum(), categoryId));
+                return totals;
+            }
+
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < window.getDays(); i++) {
+                Map<Long, LongAdder> day = daily.get(today.minusDays(i));
+                if (day != null) {
+                    day.forEach((productId, count) -> addIfInCategory(totals, productId, count.sum(), categoryId));
+                }
+            }
+            return totals;
+        }
+
+        private void addIfInCategory(Map<Long, Long> totals, Long productId, long quantity, Long categoryId) {
+            if (categoryId == null || Objects.equals(productCategories.get(productId), categoryId)) {
+                totals.merge(productId, quantity, Long::sum);
+            }
+        }
+    }
+}
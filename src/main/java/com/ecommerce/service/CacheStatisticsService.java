@@ -0,0 +1,49 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.CacheStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public CacheStatsDto getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheStatsDto.Region> regions = new ArrayList<>();
+        for (String regionName : Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().toList()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            long requests = region.getHitCount() + region.getMissCount();
+            regions.add(new CacheStatsDto.Region(regionName, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), requests > 0 ? (double) region.getHitCount() / requests : 0,
+                    region.getElementCountInMemory()));
+        }
+
+        return new CacheStatsDto(statistics.isStatisticsEnabled(),
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                regions);
+    }
+
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+    }
+}
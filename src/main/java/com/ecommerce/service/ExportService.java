@@ -0,0 +1,144 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.PaymentDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(OrderRepository orderRepository, PaymentRepository paymentRepository,
+                         ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportOrders(LocalDateTime startDate, LocalDateTime endDate, Format format,
+                             OutputStream outputStream) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamByDateRange(startDate, endDate)) {
+            export(orders, OrderDto.ExportRow::fromEntity, OrderDto.ExportRow.class, format, outputStream);
+        }
+    }
+
+    public void exportPayments(LocalDateTime startDate, LocalDateTime endDate, Format format,
+                               OutputStream outputStream) throws IOException {
+        try (Stream<Payment> payments = paymentRepository.streamByDateRange(startDate, endDate)) {
+            export(payments, PaymentDto::fromEntity, PaymentDto.class, format, outputStream);
+        }
+    }
+
+    private <E, R extends Record> void export(Stream<E> entities, Function<E, R> mapper, Class<R> rowType,
+                                              Format format, OutputStream outputStream) throws IOException {
+        RecordComponent[] columns = rowType.getRecordComponents();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+        if (format == Format.CSV) {
+            writeCsvHeader(writer, columns);
+        }
+
+        int written = 0;
+        for (E entity : (Iterable<E>) entities::iterator) {
+            R row = mapper.apply(entity);
+            if (format == Format.CSV) {
+                writeCsvRow(writer, columns, row);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+
+            // Keep the persistence context from growing with the result set
+            entityManager.detach(entity);
+            if (++written % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvHeader(Writer writer, RecordComponent[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns[i].getName());
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, RecordComponent[] columns, Record row) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value;
+            try {
+                value = columns[i].getAccessor().invoke(row);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not read export column " + columns[i].getName(), e);
+            }
+            writer.write(csvValue(value));
+        }
+        writer.write('\n');
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
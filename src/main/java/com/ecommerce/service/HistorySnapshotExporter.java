@@ -0,0 +1,239 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.PaymentDto;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.repository.OrderItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Incrementally copies changed orders, order items and payments to day-partitioned files on local disk
+// (<path>/<table>/date=YYYY-MM-DD/part-*.arrow), so offline analytics read columnar Arrow IPC files that
+// pyarrow, Polars and DuckDB open directly instead of querying production.
+// Each part is a change log: a row is written again whenever its updatedAt moves, so readers keep the
+// latest version per id. The watermark (updatedAt, id) per table is stored next to the data and only
+// advances after a batch's files are in place, so a crashed run re-exports at most one batch.
+@Component
+@ConditionalOnProperty(name = "app.history-export.enabled", havingValue = "true")
+public class HistorySnapshotExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(HistorySnapshotExporter.class);
+
+    private static final String ORDERS = "orders";
+    private static final String ORDER_ITEMS = "order_items";
+    private static final String PAYMENTS = "payments";
+    private static final String WATERMARK_FILE = "_watermarks.json";
+    private static final DateTimeFormatter PART_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BufferAllocator allocator;
+    private final ArrowPartWriter partWriter;
+    private final Path root;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long settleSeconds;
+    private final Counter exportedRows;
+
+    public HistorySnapshotExporter(OrderRepository orderRepository,
+                                   OrderItemRepository orderItemRepository,
+                                   PaymentRepository paymentRepository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.history-export.path:history}") Path root,
+                                   @Value("${app.history-export.batch-size:1000}") int batchSize,
+                                   @Value("${app.history-export.max-batches-per-run:100}") int maxBatchesPerRun,
+                                   @Value("${app.history-export.settle-seconds:30}") long settleSeconds) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.allocator = new RootAllocator();
+        this.partWriter = new ArrowPartWriter(allocator);
+        this.root = root;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.settleSeconds = settleSeconds;
+        this.exportedRows = Counter.builder("history.export.rows")
+                .description("Order and payment rows written to the history export")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.history-export.interval-ms:300000}",
+            initialDelayString = "${app.history-export.initial-delay-ms:60000}")
+    public void export() {
+        // Rows whose transaction is still in flight can commit with an older updatedAt than rows already
+        // exported, so only rows that have settled for a while are eligible
+        LocalDateTime before = LocalDateTime.now().minusSeconds(settleSeconds);
+        String runId = LocalDateTime.now().format(PART_TIMESTAMP);
+
+        try {
+            Map<String, Watermark> watermarks = readWatermarks();
+            int orders = exportBatches(watermarks, batch -> exportOrderBatch(watermarks, before, runId, batch));
+            int payments = exportBatches(watermarks, batch -> exportPaymentBatch(watermarks, before, runId, batch));
+            if (orders + payments > 0) {
+                log.info("History export wrote {} orders and {} payments to {}", orders, payments, root);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("History export failed, it will resume from the last watermark", ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        allocator.close();
+    }
+
+    private int exportBatches(Map<String, Watermark> watermarks, Function<Integer, Integer> batchExporter) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int exported = batchExporter.apply(batch);
+            total += exported;
+            if (exported > 0) {
+                writeWatermarks(watermarks);
+            }
+            if (exported < batchSize) {
+                break;
+            }
+        }
+        exportedRows.increment(total);
+        return total;
+    }
+
+    private int exportOrderBatch(Map<String, Watermark> watermarks, LocalDateTime before, String runId, int batch) {
+        Watermark watermark = watermarks.getOrDefault(ORDERS, Watermark.INITIAL);
+        return transactionTemplate.execute(status -> {
+            List<Order> orders = orderRepository.findChangedAfter(
+                    watermark.updatedAt(), watermark.id(), before, PageRequest.of(0, batchSize));
+            if (orders.isEmpty()) {
+                return 0;
+            }
+
+            Map<Long, LocalDateTime> orderUpdatedAt = orders.stream()
+                    .collect(Collectors.toMap(Order::getId, Order::getUpdatedAt));
+            List<OrderItem> items = orderItemRepository.findByOrderIds(orderUpdatedAt.keySet());
+            Order last = orders.getLast();
+            String partName = partName(runId, batch);
+
+            writePartitioned(ORDERS, partName, orders, Order::getUpdatedAt,
+                    OrderDto.HistoryRow::fromEntity, OrderDto.HistoryRow.class);
+            writePartitioned(ORDER_ITEMS, partName, items, item -> orderUpdatedAt.get(item.getOrder().getId()),
+                    item -> OrderItemDto.ExportRow.fromEntity(item, orderUpdatedAt.get(item.getOrder().getId())),
+                    OrderItemDto.ExportRow.class);
+
+            watermarks.put(ORDERS, new Watermark(last.getUpdatedAt(), last.getId()));
+            return orders.size();
+        });
+    }
+
+    private int exportPaymentBatch(Map<String, Watermark> watermarks, LocalDateTime before, String runId, int batch) {
+        Watermark watermark = watermarks.getOrDefault(PAYMENTS, Watermark.INITIAL);
+        return transactionTemplate.execute(status -> {
+            List<Payment> payments = paymentRepository.findChangedAfter(
+                    watermark.updatedAt(), watermark.id(), before, PageRequest.of(0, batchSize));
+            if (payments.isEmpty()) {
+                return 0;
+            }
+
+            Payment last = payments.getLast();
+            writePartitioned(PAYMENTS, partName(runId, batch), payments, Payment::getUpdatedAt,
+                    PaymentDto::fromEntity, PaymentDto.class);
+
+            watermarks.put(PAYMENTS, new Watermark(last.getUpdatedAt(), last.getId()));
+            return payments.size();
+        });
+    }
+
+    private <E, R extends Record> void writePartitioned(String table, String partName, List<E> entities,
+                                                        Function<E, LocalDateTime> partitionTime,
+                                                        Function<E, R> mapper, Class<R> rowType) {
+        Map<LocalDate, List<E>> byDay = entities.stream()
+                .collect(Collectors.groupingBy(entity -> partitionTime.apply(entity).toLocalDate(),
+                        TreeMap::new, Collectors.toList()));
+
+        for (Map.Entry<LocalDate, List<E>> day : byDay.entrySet()) {
+            Path directory = root.resolve(table).resolve("date=" + day.getKey());
+            Path target = directory.resolve(partName + "." + ArrowPartWriter.EXTENSION);
+            Path inProgress = directory.resolve(partName + ".inprogress");
+            try {
+                Files.createDirectories(directory);
+                try (OutputStream outputStream = Files.newOutputStream(inProgress)) {
+                    partWriter.write(day.getValue().stream().map(mapper).toList(), rowType, outputStream);
+                }
+                // Readers only ever see complete part files
+                Files.move(inProgress, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write history export part " + target, e);
+            }
+        }
+    }
+
+    private Map<String, Watermark> readWatermarks() {
+        Path file = root.resolve(WATERMARK_FILE);
+        if (!Files.exists(file)) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(objectMapper.readValue(file.toFile(), new TypeReference<Map<String, Watermark>>() {}));
+    }
+
+    private void writeWatermarks(Map<String, Watermark> watermarks) {
+        Path file = root.resolve(WATERMARK_FILE);
+        Path temp = root.resolve(WATERMARK_FILE + ".tmp");
+        try {
+            Files.createDirectories(root);
+            objectMapper.writeValue(temp.toFile(), watermarks);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write history export watermarks to " + file, e);
+        }
+    }
+
+    private static String partName(String runId, int batch) {
+        return "part-%s-%04d".formatted(runId, batch);
+    }
+
+    record Watermark(LocalDateTime updatedAt, Long id) {
+        static final Watermark INITIAL = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    }
+}
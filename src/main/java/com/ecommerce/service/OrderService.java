@@ -1,18 +1,25 @@
 package com.ecommerce.service;
 
+import com.ecommerce.analytics.SalesAnalyticsEngine;
+import com.ecommerce.dto.DailySalesStatsDto;
 import com.ecommerce.dto.OrderDto;
 import com.ecommerce.dto.PageResponse;
 import com.ecommerce.entity.*;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.repository.OrderRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -22,13 +29,26 @@ public class OrderService {
     private final UserService userService;
     private final ProductService productService;
     private final CartService cartService;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
+    private final BestSellerService bestSellerService;
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+    private final RequestOrderCache requestOrderCache;
 
     public OrderService(OrderRepository orderRepository, UserService userService,
-                        ProductService productService, CartService cartService) {
+                        ProductService productService, CartService cartService,
+                        OutboxService outboxService, SalesRollupService salesRollupService,
+                        BestSellerService bestSellerService, SalesAnalyticsEngine salesAnalyticsEngine,
+                        RequestOrderCache requestOrderCache) {
         this.orderRepository = orderRepository;
         this.userService = userService;
         this.productService = productService;
         this.cartService = cartService;
+        this.outboxService = outboxService;
+        this.salesRollupService = salesRollupService;
+        this.bestSellerService = bestSellerService;
+        this.salesAnalyticsEngine = salesAnalyticsEngine;
+        this.requestOrderCache = requestOrderCache;
     }
 
     @Transactional(readOnly = true)
@@ -39,18 +59,34 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderDto getOrderById(Long id) {
-        return orderRepository.findById(id)
-                .map(OrderDto::fromEntity)
+        return requestOrderCache.takeById(id)
+                .or(() -> orderRepository.findDetailedById(id).map(OrderDto::fromEntity))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
     }
 
     @Transactional(readOnly = true)
     public OrderDto getOrderByOrderNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
-                .map(OrderDto::fromEntity)
+        return requestOrderCache.takeByOrderNumber(orderNumber)
+                .or(() -> orderRepository.findDetailedByOrderNumber(orderNumber).map(OrderDto::fromEntity))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
     }
 
+    // For ownership checks in front of getOrderById/getOrderByOrderNumber: the order is loaded once
+    // and the following service call in the same request reuses it
+    @Transactional(readOnly = true)
+    public Optional<OrderDto> prefetchOrder(Long id) {
+        Optional<OrderDto> order = orderRepository.findDetailedById(id).map(OrderDto::fromEntity);
+        order.ifPresent(requestOrderCache::put);
+        return order;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<OrderDto> prefetchOrderByNumber(String orderNumber) {
+        Optional<OrderDto> order = orderRepository.findDetailedByOrderNumber(orderNumber).map(OrderDto::fromEntity);
+        order.ifPresent(requestOrderCache::put);
+        return order;
+    }
+
     @Transactional(readOnly = true)
     public Order getOrderEntityById(Long id) {
         return orderRepository.findById(id)
@@ -64,10 +100,9 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public List<OrderDto.OrderSummary> getUserOrderSummaries(Long userId) {
-        return orderRepository.findAllByUserId(userId).stream()
-                .map(OrderDto.OrderSummary::fromEntity)
-                .toList();
+    public PageResponse<OrderDto.OrderSummary> getUserOrderSummaries(Long userId, Pageable pageable) {
+        Page<OrderRepository.OrderSummaryView> page = orderRepository.findSummariesByUserId(userId, pageable);
+        return PageResponse.from(page, OrderDto.OrderSummary::fromView);
     }
 
     @Transactional(readOnly = true)
@@ -99,6 +134,10 @@ public class OrderService {
         order.calculateTotals();
 
         Order savedOrder = orderRepository.save(order);
+        outboxService.recordOrderEvent(savedOrder, OutboxEvent.EventType.ORDER_CREATED);
+        salesRollupService.onOrderCreated(savedOrder);
+        bestSellerService.onOrderCreated(savedOrder);
+        salesAnalyticsEngine.onOrderCreated(savedOrder);
 
         cartService.clearCart(userId);
 
@@ -119,28 +158,32 @@ public class OrderService {
             if (!product.isActive()) {
                 throw new IllegalStateException("Product '" + product.getName() + "' is not available");
             }
-            if (product.getStockQuantity() < itemRequest.quantity()) {
-                throw new IllegalStateException("Insufficient stock for product: " + product.getName());
-            }
+
+            // Checks stock against the row re-read under its lock, and refreshes the product the item copies
+            productService.reduceStock(product.getId(), itemRequest.quantity());
 
             OrderItem orderItem = new OrderItem(order, product, itemRequest.quantity());
             order.addOrderItem(orderItem);
-
-            productService.reduceStock(product.getId(), itemRequest.quantity());
         }
 
         order.calculateTotals();
 
         Order savedOrder = orderRepository.save(order);
+        outboxService.recordOrderEvent(savedOrder, OutboxEvent.EventType.ORDER_CREATED);
+        salesRollupService.onOrderCreated(savedOrder);
+        bestSellerService.onOrderCreated(savedOrder);
+        salesAnalyticsEngine.onOrderCreated(savedOrder);
         return OrderDto.fromEntity(savedOrder);
     }
 
     public OrderDto updateOrderStatus(Long id, OrderDto.UpdateStatusRequest request) {
-        Order order = orderRepository.findById(id)
+        // Locked so the status read here is still current when the rollup moves the order between status rows
+        Order order = orderRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
         if (request.status() != null) {
             validateStatusTransition(order.getStatus(), request.status());
+            salesRollupService.onOrderStatusChange(order, request.status());
             order.setStatus(request.status());
         }
 
@@ -149,25 +192,79 @@ public class OrderService {
         }
 
         Order updatedOrder = orderRepository.save(order);
+        outboxService.recordOrderEvent(updatedOrder, OutboxEvent.EventType.ORDER_STATUS_CHANGED);
         return OrderDto.fromEntity(updatedOrder);
     }
 
     public OrderDto cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
-        if (order.getStatus() == Order.OrderStatus.SHIPPED ||
-            order.getStatus() == Order.OrderStatus.DELIVERED) {
-            throw new IllegalStateException("Cannot cancel order that has been shipped or delivered");
+        validateCancellable(order);
+        cancelInBulk(List.of(order));
+
+        // Not getOrderById: the request cache may still hold the order as it was before the cancel
+        return orderRepository.findDetailedById(id)
+                .map(OrderDto::fromEntity)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+    }
+
+    public OrderDto.BulkCancelResponse cancelOrders(List<Long> orderIds) {
+        List<Long> distinctIds = orderIds.stream().distinct().toList();
+        List<Order> orders = orderRepository.findAllByIdForUpdate(distinctIds);
+
+        if (orders.size() != distinctIds.size()) {
+            Set<Long> found = orders.stream().map(Order::getId).collect(Collectors.toSet());
+            Long missingId = distinctIds.stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+            throw new ResourceNotFoundException("Order", "id", missingId);
         }
 
-        for (OrderItem item : order.getOrderItems()) {
-            productService.increaseStock(item.getProduct().getId(), item.getQuantity());
+        orders.forEach(this::validateCancellable);
+        cancelInBulk(orders);
+
+        return new OrderDto.BulkCancelResponse(
+                orders.size(),
+                orders.stream().map(Order::getOrderNumber).toList()
+        );
+    }
+
+    public int cancelStalePendingOrders(LocalDateTime cutoffDate, int batchSize) {
+        List<Order> staleOrders = orderRepository.findStalePendingOrders(cutoffDate, PageRequest.of(0, batchSize));
+        if (staleOrders.isEmpty()) {
+            return 0;
         }
 
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        Order updatedOrder = orderRepository.save(order);
-        return OrderDto.fromEntity(updatedOrder);
+        cancelInBulk(staleOrders);
+        return staleOrders.size();
+    }
+
+    // Restores stock for all orders with one aggregated UPDATE and flips their status with another,
+    // instead of a select + update per order item. The orders must already be locked by the caller.
+    private void cancelInBulk(List<Order> orders) {
+        List<Long> orderIds = orders.stream().map(Order::getId).toList();
+
+        productService.restoreStockForOrders(orderIds);
+        salesRollupService.onOrderStatusChange(orders, Order.OrderStatus.CANCELLED);
+        bestSellerService.onOrdersCancelled(orders);
+        salesAnalyticsEngine.onOrdersCancelled(orders);
+        orderRepository.updateStatusByIds(orderIds, Order.OrderStatus.CANCELLED, LocalDateTime.now());
+
+        // The bulk update cleared the persistence context, so these instances are detached snapshots
+        for (Order order : orders) {
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            outboxService.recordOrderEvent(order, OutboxEvent.EventType.ORDER_CANCELLED);
+        }
+    }
+
+    private void validateCancellable(Order order) {
+        if (order.getStatus() == Order.OrderStatus.SHIPPED ||
+            order.getStatus() == Order.OrderStatus.DELIVERED) {
+            throw new IllegalStateException("Cannot cancel order that has been shipped or delivered: " + order.getOrderNumber());
+        }
+        if (order.getStatus() == Order.OrderStatus.CANCELLED ||
+            order.getStatus() == Order.OrderStatus.REFUNDED) {
+            throw new IllegalStateException("Order is already cancelled or refunded: " + order.getOrderNumber());
+        }
     }
 
     private void validateStatusTransition(Order.OrderStatus currentStatus, Order.OrderStatus newStatus) {
@@ -189,12 +286,16 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public long countOrdersByStatus(Order.OrderStatus status) {
-        return orderRepository.countByStatus(status);
+        return salesRollupService.getOrderCount(status);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalRevenueByStatus(Order.OrderStatus status) {
-        BigDecimal total = orderRepository.sumTotalAmountByStatus(status);
-        return total != null ? total : BigDecimal.ZERO;
+        return salesRollupService.getOrderAmount(status);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesStatsDto> getDailySalesStats(LocalDate startDate, LocalDate endDate) {
+        return salesRollupService.getDailyStats(startDate, endDate);
     }
 }
@@ -0,0 +1,61 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OutboxEvent;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    public static final String ORDER_AGGREGATE = "Order";
+    public static final String PAYMENT_AGGREGATE = "Payment";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void recordOrderEvent(Order order, OutboxEvent.EventType eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus().name());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("trackingNumber", order.getTrackingNumber());
+
+        record(ORDER_AGGREGATE, order.getId(), eventType, payload);
+    }
+
+    public void recordPaymentEvent(Payment payment, OutboxEvent.EventType eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", payment.getId());
+        payload.put("transactionId", payment.getTransactionId());
+        payload.put("orderId", payment.getOrder().getId());
+        payload.put("status", payment.getStatus().name());
+        payload.put("amount", payment.getAmount());
+        payload.put("currency", payment.getCurrency());
+        payload.put("paymentMethod", payment.getPaymentMethod().name());
+        payload.put("paymentProvider", payment.getPaymentProvider());
+
+        record(PAYMENT_AGGREGATE, payment.getId(), eventType, payload);
+    }
+
+    private void record(String aggregateType, Long aggregateId, OutboxEvent.EventType eventType,
+                        Map<String, Object> payload) {
+        String json = objectMapper.writeValueAsString(payload);
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, json));
+    }
+}
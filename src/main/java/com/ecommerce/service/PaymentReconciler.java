@@ -0,0 +1,74 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Settles payments stuck in PROCESSING after a charge timed out or the node died mid-call, by looking the
+// transaction up at the provider. Also retries voids for charges whose order was cancelled meanwhile, and
+// re-sends refunds stuck in REFUNDING, which the provider answers with the first outcome.
+@Component
+@ConditionalOnProperty(name = "app.payment.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciler.class);
+
+    private final PaymentService paymentService;
+    private final long staleAfterMs;
+    private final int batchSize;
+    private final Counter settled;
+    private final Counter unresolved;
+    private final Counter errors;
+
+    public PaymentReconciler(PaymentService paymentService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.payment.reconcile.stale-after-ms:60000}") long staleAfterMs,
+                             @Value("${app.payment.reconcile.batch-size:100}") int batchSize) {
+        this.paymentService = paymentService;
+        this.staleAfterMs = staleAfterMs;
+        this.batchSize = batchSize;
+        this.settled = results(meterRegistry, "settled");
+        this.unresolved = results(meterRegistry, "unresolved");
+        this.errors = results(meterRegistry, "error");
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.reconcile.interval-ms:60000}",
+            initialDelayString = "${app.payment.reconcile.initial-delay-ms:30000}")
+    public void reconcilePayments() {
+        // Older than any call still in flight, so a lookup never races the original call
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        reconcile(Payment.PaymentStatus.PROCESSING, before, paymentService::reconcileProcessingPayment);
+        reconcile(Payment.PaymentStatus.REFUNDING, before, paymentService::reconcileRefundingPayment);
+    }
+
+    private void reconcile(Payment.PaymentStatus status, LocalDateTime before, Predicate<Long> reconciler) {
+        List<Long> paymentIds = paymentService.findStalePaymentIds(status, before, batchSize);
+
+        for (Long paymentId : paymentIds) {
+            try {
+                (reconciler.test(paymentId) ? settled : unresolved).increment();
+            } catch (RuntimeException ex) {
+                errors.increment();
+                log.warn("Could not reconcile payment {}", paymentId, ex);
+            }
+        }
+    }
+
+    private static Counter results(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.reconcile")
+                .description("PROCESSING and REFUNDING payments checked against the provider, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,15 +1,27 @@
 package com.ecommerce.service;
 
+import com.ecommerce.analytics.SalesAnalyticsEngine;
 import com.ecommerce.dto.PageResponse;
 import com.ecommerce.dto.PaymentDto;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OutboxEvent;
 import com.ecommerce.entity.Payment;
+import com.ecommerce.exception.PaymentGatewayUnavailableException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.payment.PaymentGateway;
+import com.ecommerce.payment.PaymentGatewayRegistry;
+import com.ecommerce.repository.OrderRepository;
 import com.ecommerce.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -19,12 +31,30 @@ import java.util.List;
 @Transactional
 public class PaymentService {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
     private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
     private final OrderService orderService;
-
-    public PaymentService(PaymentRepository paymentRepository, OrderService orderService) {
+    private final PaymentGatewayRegistry paymentGatewayRegistry;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
+    private final SalesAnalyticsEngine salesAnalyticsEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+                          OrderService orderService,
+                          PaymentGatewayRegistry paymentGatewayRegistry, OutboxService outboxService,
+                          SalesRollupService salesRollupService, SalesAnalyticsEngine salesAnalyticsEngine,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
         this.orderService = orderService;
+        this.paymentGatewayRegistry = paymentGatewayRegistry;
+        this.outboxService = outboxService;
+        this.salesRollupService = salesRollupService;
+        this.salesAnalyticsEngine = salesAnalyticsEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional(readOnly = true)
@@ -67,9 +97,7 @@ public class PaymentService {
         }
 
         Payment payment = new Payment(order, order.getTotalAmount(), request.paymentMethod());
-        if (request.paymentProvider() != null) {
-            payment.setPaymentProvider(request.paymentProvider());
-        }
+        payment.setPaymentProvider(paymentGatewayRegistry.resolveProvider(request.paymentProvider()));
 
         order.setPayment(payment);
 
@@ -77,55 +105,224 @@ public class PaymentService {
         return PaymentDto.fromEntity(savedPayment);
     }
 
+    // The provider call runs outside any transaction so a slow gateway never pins a pooled connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto processPayment(Long paymentId, PaymentDto.ProcessRequest request) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
-
-        if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
-            throw new IllegalStateException("Payment is not in pending status");
+        // Of two concurrent calls only the one whose conditional update moves the row out of PENDING charges
+        Payment pending = transactionTemplate.execute(status -> {
+            int claimed = paymentRepository.transitionStatus(paymentId, Payment.PaymentStatus.PENDING,
+                    Payment.PaymentStatus.PROCESSING, LocalDateTime.now());
+            Payment payment = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+            if (claimed == 0) {
+                throw new IllegalStateException("Payment is not in pending status");
+            }
+            // Throwing rolls the claim back, so the payment stays PENDING
+            if (payment.getOrder().getStatus() != Order.OrderStatus.PENDING) {
+                throw new IllegalStateException("Order " + payment.getOrder().getOrderNumber()
+                        + " is " + payment.getOrder().getStatus() + " and can no longer be paid");
+            }
+            return payment;
+        });
+
+        PaymentGateway.ChargeRequest chargeRequest = new PaymentGateway.ChargeRequest(
+                pending.getTransactionId(),
+                pending.getAmount(),
+                pending.getCurrency(),
+                pending.getPaymentMethod(),
+                request.providerReference()
+        );
+
+        PaymentGateway.ChargeResult result;
+        try {
+            result = paymentGatewayRegistry.charge(pending.getPaymentProvider(), chargeRequest);
+        } catch (PaymentGatewayUnavailableException ex) {
+            // Rejected before the provider saw it, so the payment can safely be tried again
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.transitionStatus(paymentId,
+                    Payment.PaymentStatus.PROCESSING, Payment.PaymentStatus.PENDING, LocalDateTime.now()));
+            throw ex;
         }
 
-        payment.setStatus(Payment.PaymentStatus.PROCESSING);
+        return settle(paymentId, result, request.providerReference());
+    }
+
+    // Resolves a payment left in PROCESSING by a timed-out or interrupted charge by asking the provider
+    // about its transactionId. Returns false while the outcome is still unknown.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean reconcileProcessingPayment(Long paymentId) {
+        Payment payment = transactionTemplate.execute(status -> paymentRepository.findById(paymentId).orElse(null));
+        if (payment == null || payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
+            return true;
+        }
 
-        // Simulate payment processing
-        boolean success = simulatePaymentProcessing(payment);
+        PaymentGateway.ChargeResult result = paymentGatewayRegistry.lookup(
+                payment.getPaymentProvider(), payment.getTransactionId());
+        return settle(paymentId, result, payment.getProviderReference()).status() != Payment.PaymentStatus.PROCESSING;
+    }
 
-        if (success) {
-            payment.markAsCompleted(request.providerReference());
+    private PaymentDto settle(Long paymentId, PaymentGateway.ChargeResult result, String requestedReference) {
+        if (result.outcome() == PaymentGateway.Outcome.UNKNOWN) {
+            // Never FAILED here: the provider may have charged. The PaymentReconciler settles it later.
+            log.warn("Outcome of payment {} is unknown ({}), leaving it PROCESSING", paymentId, result.failureReason());
+            return transactionTemplate.execute(status ->
+                    PaymentDto.fromEntity(paymentRepository.findById(paymentId).orElseThrow()));
+        }
 
-            Order order = payment.getOrder();
+        Settlement settlement = transactionTemplate.execute(status -> {
+            Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElseThrow();
+            if (payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
+                // Already settled by the reconciler or a concurrent call
+                return new Settlement(PaymentDto.fromEntity(payment), false);
+            }
+
+            if (!result.success()) {
+                payment.markAsFailed(result.failureReason() != null
+                        ? result.failureReason()
+                        : "Payment processing failed");
+                return new Settlement(PaymentDto.fromEntity(paymentRepository.save(payment)), false);
+            }
+
+            // Locked, so neither the stale order reaper nor the customer can cancel the order before this commits
+            Order order = orderRepository.findByIdForUpdate(payment.getOrder().getId()).orElseThrow();
+            if (order.getStatus() != Order.OrderStatus.PENDING) {
+                return new Settlement(PaymentDto.fromEntity(payment), true);
+            }
+
+            payment.markAsCompleted(result.providerReference() != null
+                    ? result.providerReference()
+                    : requestedReference);
+            salesRollupService.onPaymentCompleted(payment);
+            salesAnalyticsEngine.onPaymentCompleted(payment);
+            salesRollupService.onOrderStatusChange(order, Order.OrderStatus.CONFIRMED);
             order.setStatus(Order.OrderStatus.CONFIRMED);
-        } else {
-            payment.markAsFailed("Payment processing failed");
-        }
 
-        Payment updatedPayment = paymentRepository.save(payment);
-        return PaymentDto.fromEntity(updatedPayment);
+            Payment updatedPayment = paymentRepository.save(payment);
+            outboxService.recordPaymentEvent(updatedPayment, OutboxEvent.EventType.PAYMENT_COMPLETED);
+            outboxService.recordOrderEvent(order, OutboxEvent.EventType.ORDER_STATUS_CHANGED);
+            return new Settlement(PaymentDto.fromEntity(updatedPayment), false);
+        });
+
+        if (!settlement.voidCharge()) {
+            return settlement.payment();
+        }
+        return voidCharge(settlement.payment(),
+                result.providerReference() != null ? result.providerReference() : requestedReference);
     }
 
-    private boolean simulatePaymentProcessing(Payment payment) {
-        // In a real application, this would integrate with payment gateway
-        return true;
+    // The order was cancelled while its charge was in flight: give the money back instead of confirming it
+    private PaymentDto voidCharge(PaymentDto payment, String providerReference) {
+        boolean voided;
+        try {
+            voided = paymentGatewayRegistry.voidCharge(payment.paymentProvider(), payment.transactionId(),
+                    providerReference);
+        } catch (PaymentGatewayUnavailableException ex) {
+            voided = false;
+        }
+        if (!voided) {
+            log.warn("Could not void the charge of payment {} for cancelled order {}, the reconciler will retry",
+                    payment.id(), payment.orderNumber());
+            return payment;
+        }
+
+        return transactionTemplate.execute(status -> {
+            Payment locked = paymentRepository.findByIdForUpdate(payment.id()).orElseThrow();
+            if (locked.getStatus() == Payment.PaymentStatus.PROCESSING) {
+                locked.setStatus(Payment.PaymentStatus.CANCELLED);
+                locked.setFailureReason("Charge voided: the order was cancelled while the payment was processing");
+                locked = paymentRepository.save(locked);
+            }
+            return PaymentDto.fromEntity(locked);
+        });
     }
 
+    // Like processPayment: REFUNDING claims the payment so only one of two concurrent refunds reaches the
+    // provider, and nothing is marked REFUNDED or taken off the sales figures until the provider confirms
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentDto refundPayment(Long paymentId, PaymentDto.RefundRequest request) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+        Payment completed = transactionTemplate.execute(status -> {
+            int claimed = paymentRepository.transitionStatus(paymentId, Payment.PaymentStatus.COMPLETED,
+                    Payment.PaymentStatus.REFUNDING, LocalDateTime.now());
+            Payment payment = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+            if (claimed == 0) {
+                throw new IllegalStateException("Only completed payments can be refunded");
+            }
+            if (request.reason() != null) {
+                payment.setFailureReason("Refund reason: " + request.reason());
+            }
+            return payment;
+        });
+
+        PaymentGateway.ChargeResult result;
+        try {
+            result = paymentGatewayRegistry.refund(completed.getPaymentProvider(), completed.getTransactionId(),
+                    completed.getAmount());
+        } catch (PaymentGatewayUnavailableException ex) {
+            // Rejected before the provider saw it, so the payment is still completed
+            transactionTemplate.executeWithoutResult(status -> {
+                Payment locked = paymentRepository.findByIdForUpdate(paymentId).orElseThrow();
+                if (locked.getStatus() == Payment.PaymentStatus.REFUNDING) {
+                    locked.setStatus(Payment.PaymentStatus.COMPLETED);
+                    locked.setFailureReason(null);
+                }
+            });
+            throw ex;
+        }
 
-        if (payment.getStatus() != Payment.PaymentStatus.COMPLETED) {
-            throw new IllegalStateException("Only completed payments can be refunded");
+        PaymentDto refunded = settleRefund(paymentId, result);
+        if (result.outcome() == PaymentGateway.Outcome.DECLINED) {
+            throw new IllegalStateException("Refund declined by the payment provider: " + result.failureReason());
         }
+        return refunded;
+    }
 
-        payment.markAsRefunded();
-        if (request.reason() != null) {
-            payment.setFailureReason("Refund reason: " + request.reason());
+    // Resolves a payment left in REFUNDING by a timed-out or interrupted refund by asking the provider again;
+    // refunds are idempotent per transactionId. Returns false while the outcome is still unknown.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean reconcileRefundingPayment(Long paymentId) {
+        Payment payment = transactionTemplate.execute(status -> paymentRepository.findById(paymentId).orElse(null));
+        if (payment == null || payment.getStatus() != Payment.PaymentStatus.REFUNDING) {
+            return true;
         }
 
-        Order order = payment.getOrder();
-        order.setStatus(Order.OrderStatus.REFUNDED);
+        PaymentGateway.ChargeResult result = paymentGatewayRegistry.refund(
+                payment.getPaymentProvider(), payment.getTransactionId(), payment.getAmount());
+        return settleRefund(paymentId, result).status() != Payment.PaymentStatus.REFUNDING;
+    }
 
-        Payment updatedPayment = paymentRepository.save(payment);
-        return PaymentDto.fromEntity(updatedPayment);
+    private PaymentDto settleRefund(Long paymentId, PaymentGateway.ChargeResult result) {
+        if (result.outcome() == PaymentGateway.Outcome.UNKNOWN) {
+            log.warn("Outcome of refund {} is unknown ({}), leaving it REFUNDING", paymentId, result.failureReason());
+            return transactionTemplate.execute(status ->
+                    PaymentDto.fromEntity(paymentRepository.findById(paymentId).orElseThrow()));
+        }
+
+        return transactionTemplate.execute(status -> {
+            Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElseThrow();
+            if (payment.getStatus() != Payment.PaymentStatus.REFUNDING) {
+                // Already settled by the reconciler or a concurrent call
+                return PaymentDto.fromEntity(payment);
+            }
+
+            if (!result.success()) {
+                payment.setStatus(Payment.PaymentStatus.COMPLETED);
+                payment.setFailureReason("Refund declined: " + result.failureReason());
+                return PaymentDto.fromEntity(paymentRepository.save(payment));
+            }
+
+            salesRollupService.onPaymentRefunded(payment);
+            payment.markAsRefunded();
+            salesAnalyticsEngine.onPaymentRefunded(payment);
+
+            Order order = orderRepository.findByIdForUpdate(payment.getOrder().getId()).orElseThrow();
+            salesRollupService.onOrderStatusChange(order, Order.OrderStatus.REFUNDED);
+            order.setStatus(Order.OrderStatus.REFUNDED);
+
+            Payment updatedPayment = paymentRepository.save(payment);
+            outboxService.recordPaymentEvent(updatedPayment, OutboxEvent.EventType.PAYMENT_REFUNDED);
+            outboxService.recordOrderEvent(order, OutboxEvent.EventType.ORDER_STATUS_CHANGED);
+            return PaymentDto.fromEntity(updatedPayment);
+        });
     }
 
     public PaymentDto cancelPayment(Long paymentId) {
@@ -136,10 +333,15 @@ public class PaymentService {
             throw new IllegalStateException("Cannot cancel completed payment, use refund instead");
         }
 
-        if (payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+        if (payment.getStatus() == Payment.PaymentStatus.REFUNDED
+                || payment.getStatus() == Payment.PaymentStatus.REFUNDING) {
             throw new IllegalStateException("Payment is already refunded");
         }
 
+        if (payment.getStatus() == Payment.PaymentStatus.PROCESSING) {
+            throw new IllegalStateException("Payment is being processed, cancel the order instead");
+        }
+
         payment.setStatus(Payment.PaymentStatus.CANCELLED);
 
         Payment updatedPayment = paymentRepository.save(payment);
@@ -155,18 +357,24 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalCompletedPayments() {
-        BigDecimal total = paymentRepository.getTotalCompletedPayments();
-        return total != null ? total : BigDecimal.ZERO;
+        return salesRollupService.getCompletedPaymentsTotal();
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalCompletedPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal total = paymentRepository.getTotalCompletedPaymentsByDateRange(startDate, endDate);
-        return total != null ? total : BigDecimal.ZERO;
+        return salesRollupService.getCompletedPaymentsTotal(startDate, endDate);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findStalePaymentIds(Payment.PaymentStatus status, LocalDateTime before, int limit) {
+        return paymentRepository.findIdsByStatusUpdatedBefore(status, before, PageRequest.of(0, limit));
     }
 
     @Transactional(readOnly = true)
     public long countPaymentsByStatus(Payment.PaymentStatus status) {
         return paymentRepository.countByStatus(status);
     }
+
+    private record Settlement(PaymentDto payment, boolean voidCharge) {
+    }
 }
@@ -6,25 +6,38 @@ import com.ecommerce.entity.Category;
 import com.ecommerce.entity.Product;
 import com.ecommerce.exception.DuplicateResourceException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.image.ImageStorage;
 import com.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
 @Transactional
 public class ProductService {
 
+    public static final String IMAGE_URL_PREFIX = "/api/products/images/";
+
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
+    private final ImageStorage imageStorage;
+    private final EntityManager entityManager;
 
-    public ProductService(ProductRepository productRepository, CategoryService categoryService) {
+    public ProductService(ProductRepository productRepository, CategoryService categoryService,
+                          ImageStorage imageStorage, EntityManager entityManager) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
+        this.imageStorage = imageStorage;
+        this.entityManager = entityManager;
     }
 
     @Transactional(readOnly = true)
@@ -172,9 +185,23 @@ public class ProductService {
         productRepository.deleteById(id);
     }
 
+    // The stored file is named by its content, so an upload whose transaction rolls back only leaves
+    // behind a file that a retry would reuse
+    public ProductDto addImage(Long id, InputStream content, boolean primary) {
+        Product product = getProductEntityById(id);
+
+        ImageStorage.StoredImage image = imageStorage.store(content);
+        String url = IMAGE_URL_PREFIX + image.name();
+        if (primary || product.getImageUrl() == null) {
+            product.setImageUrl(url);
+        } else if (!product.getAdditionalImages().contains(url)) {
+            product.getAdditionalImages().add(url);
+        }
+        return ProductDto.fromEntity(productRepository.save(product));
+    }
+
     public ProductDto updateStock(Long id, int quantity) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        Product product = lockForStockChange(id);
 
         product.setStockQuantity(quantity);
         Product updatedProduct = productRepository.save(product);
@@ -182,18 +209,31 @@ public class ProductService {
     }
 
     public void reduceStock(Long id, int quantity) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        Product product = lockForStockChange(id);
 
         product.reduceStock(quantity);
         productRepository.save(product);
     }
 
     public void increaseStock(Long id, int quantity) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        Product product = lockForStockChange(id);
 
         product.increaseStock(quantity);
         productRepository.save(product);
     }
+
+    public int restoreStockForOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return productRepository.restoreStockForOrders(orderIds, LocalDateTime.now());
+    }
+
+    // Stock changes start from the committed row, not from a second-level cache entry that another node may
+    // have made stale: refreshing under a row lock re-reads it and serialises concurrent changes
+    private Product lockForStockChange(Long id) {
+        Product product = getProductEntityById(id);
+        entityManager.refresh(product, LockModeType.PESSIMISTIC_WRITE);
+        return product;
+    }
 }
@@ -0,0 +1,106 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.RefreshToken;
+import com.ecommerce.entity.User;
+import com.ecommerce.exception.InvalidRefreshTokenException;
+import com.ecommerce.repository.RefreshTokenRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.TokenHashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    public record IssuedToken(String token, LocalDateTime expiresAt) {}
+
+    public record Rotation(User user, IssuedToken refreshToken) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final long refreshExpirationMs;
+    private final long retentionMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${app.jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs,
+                               @Value("${app.jwt.refresh-retention-ms:86400000}") long retentionMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.retentionMs = retentionMs;
+    }
+
+    public IssuedToken issue(User user) {
+        return store(user, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+
+    // Rotated tokens stay in the table until they expire, so reuse of an old token is recognised.
+    // noRollbackFor keeps a family revocation committed even though the request is rejected.
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(TokenHashing.sha256Hex(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+
+        if (current.getRotatedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {}, revoked {} tokens of family {}",
+                    current.getUserId(), revoked, current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (!current.isActive(now)) {
+            throw new InvalidRefreshTokenException("Refresh token is expired or revoked");
+        }
+
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null || !user.isEnabled() || user.getTokenVersion() != current.getTokenVersion()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+
+        current.setRotatedAt(now);
+        return new Rotation(user, store(user, current.getFamilyId(), now));
+    }
+
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(TokenHashing.sha256Hex(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}",
+            initialDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMs)));
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private IssuedToken store(User user, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(refreshExpirationMs));
+
+        refreshTokenRepository.save(new RefreshToken(
+                TokenHashing.sha256Hex(rawToken), familyId, user.getId(), user.getTokenVersion(), expiresAt));
+        return new IssuedToken(rawToken, expiresAt);
+    }
+}
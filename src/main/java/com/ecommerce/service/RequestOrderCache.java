@@ -0,0 +1,62 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Holds orders already loaded during the current HTTP request, so an ownership check that had to load
+// the order hands it to the controller's service call instead of it being queried twice. Entries are
+// taken at most once, and nothing is cached outside a request (schedulers, async work).
+@Component
+public class RequestOrderCache {
+
+    private static final String ATTRIBUTE = RequestOrderCache.class.getName();
+
+    public void put(OrderDto order) {
+        Map<Object, OrderDto> orders = orders(true);
+        if (orders != null) {
+            orders.put(order.id(), order);
+            orders.put(order.orderNumber(), order);
+        }
+    }
+
+    public Optional<OrderDto> takeById(Long id) {
+        return take(id);
+    }
+
+    public Optional<OrderDto> takeByOrderNumber(String orderNumber) {
+        return take(orderNumber);
+    }
+
+    private Optional<OrderDto> take(Object key) {
+        Map<Object, OrderDto> orders = orders(false);
+        if (orders == null) {
+            return Optional.empty();
+        }
+        OrderDto order = orders.remove(key);
+        if (order != null) {
+            orders.remove(order.id());
+            orders.remove(order.orderNumber());
+        }
+        return Optional.ofNullable(order);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, OrderDto> orders(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Object, OrderDto> orders = (Map<Object, OrderDto>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (orders == null && create) {
+            orders = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, orders, RequestAttributes.SCOPE_REQUEST);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.DailySalesStats;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderStatusStats;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.entity.PaymentMethodStats;
+import com.ecommerce.repository.DailySalesStatsRepository;
+import com.ecommerce.repository.OrderStatusStatsRepository;
+import com.ecommerce.repository.PaymentMethodStatsRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+// Rollup rows are created in their own transaction so that losing an insert race to another
+// node surfaces as a DataIntegrityViolationException the caller can ignore, without poisoning
+// the caller's transaction.
+@Component
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class SalesRollupRowCreator {
+
+    private final OrderStatusStatsRepository orderStatusStatsRepository;
+    private final PaymentMethodStatsRepository paymentMethodStatsRepository;
+    private final DailySalesStatsRepository dailySalesStatsRepository;
+
+    public SalesRollupRowCreator(OrderStatusStatsRepository orderStatusStatsRepository,
+                                 PaymentMethodStatsRepository paymentMethodStatsRepository,
+                                 DailySalesStatsRepository dailySalesStatsRepository) {
+        this.orderStatusStatsRepository = orderStatusStatsRepository;
+        this.paymentMethodStatsRepository = paymentMethodStatsRepository;
+        this.dailySalesStatsRepository = dailySalesStatsRepository;
+    }
+
+    public void createStatusRow(Order.OrderStatus status) {
+        if (!orderStatusStatsRepository.existsById(status)) {
+            orderStatusStatsRepository.saveAndFlush(new OrderStatusStats(status));
+        }
+    }
+
+    public void createMethodRow(Payment.PaymentMethod method) {
+        if (!paymentMethodStatsRepository.existsById(method)) {
+            paymentMethodStatsRepository.saveAndFlush(new PaymentMethodStats(method));
+        }
+    }
+
+    public void createDailyRow(LocalDate date) {
+        if (!dailySalesStatsRepository.existsById(date)) {
+            dailySalesStatsRepository.saveAndFlush(new DailySalesStats(date));
+        }
+    }
+}
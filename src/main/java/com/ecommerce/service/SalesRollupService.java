@@ -0,0 +1,317 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.DailySalesStatsDto;
+import com.ecommerce.entity.*;
+import com.ecommerce.repository.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+@Service
+@Transactional
+public class SalesRollupService {
+
+    private final OrderStatusStatsRepository orderStatusStatsRepository;
+    private final PaymentMethodStatsRepository paymentMethodStatsRepository;
+    private final DailySalesStatsRepository dailySalesStatsRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final SalesRollupRowCreator rowCreator;
+
+    // Daily rows older than the reconcile window are only trustworthy once this node has seen the
+    // history backfill finish; until then date-range totals come straight from the payments table
+    private volatile boolean historyBackfilled;
+
+    public SalesRollupService(OrderStatusStatsRepository orderStatusStatsRepository,
+                              PaymentMethodStatsRepository paymentMethodStatsRepository,
+                              DailySalesStatsRepository dailySalesStatsRepository,
+                              OrderRepository orderRepository,
+                              PaymentRepository paymentRepository,
+                              SalesRollupRowCreator rowCreator) {
+        this.orderStatusStatsRepository = orderStatusStatsRepository;
+        this.paymentMethodStatsRepository = paymentMethodStatsRepository;
+        this.dailySalesStatsRepository = dailySalesStatsRepository;
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.rowCreator = rowCreator;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(Order order) {
+        incrementStatus(order.getStatus(), 1, order.getTotalAmount());
+
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        if (dailySalesStatsRepository.incrementOrders(day, 1, order.getTotalAmount()) == 0) {
+            ensureDailyRow(day);
+            dailySalesStatsRepository.incrementOrders(day, 1, order.getTotalAmount());
+        }
+    }
+
+    // Must be called before the new status is applied, since it reads each order's current status
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChange(Collection<Order> orders, Order.OrderStatus newStatus) {
+        Map<Order.OrderStatus, long[]> counts = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.OrderStatus, BigDecimal> amounts = new EnumMap<>(Order.OrderStatus.class);
+        long movedCount = 0;
+        BigDecimal movedAmount = BigDecimal.ZERO;
+
+        for (Order order : orders) {
+            if (order.getStatus() == newStatus) {
+                continue;
+            }
+            counts.computeIfAbsent(order.getStatus(), s -> new long[1])[0]++;
+            amounts.merge(order.getStatus(), order.getTotalAmount(), BigDecimal::add);
+            movedCount++;
+            movedAmount = movedAmount.add(order.getTotalAmount());
+        }
+
+        if (movedCount == 0) {
+            return;
+        }
+        for (Map.Entry<Order.OrderStatus, long[]> entry : counts.entrySet()) {
+            incrementStatus(entry.getKey(), -entry.getValue()[0], amounts.get(entry.getKey()).negate());
+        }
+        incrementStatus(newStatus, movedCount, movedAmount);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChange(Order order, Order.OrderStatus newStatus) {
+        onOrderStatusChange(List.of(order), newStatus);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPaymentCompleted(Payment payment) {
+        applyCompletedPayment(payment, 1, payment.getAmount());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPaymentRefunded(Payment payment) {
+        applyCompletedPayment(payment, -1, payment.getAmount().negate());
+    }
+
+    @Transactional(readOnly = true)
+    public long getOrderCount(Order.OrderStatus status) {
+        return orderStatusStatsRepository.findById(status)
+                .map(OrderStatusStats::getOrderCount)
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getOrderAmount(Order.OrderStatus status) {
+        return orderStatusStatsRepository.findById(status)
+                .map(OrderStatusStats::getTotalAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getCompletedPaymentsTotal() {
+        BigDecimal total = paymentMethodStatsRepository.sumCompletedAmount();
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    // Whole days inside the range are answered from the daily rollup; only the partial days at
+    // either edge fall back to the payments table, which is a narrow indexed range on paid_at.
+    @Transactional(readOnly = true)
+    public BigDecimal getCompletedPaymentsTotal(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            return BigDecimal.ZERO;
+        }
+        if (!historyBackfilled) {
+            return rawCompletedPayments(startDate, endDate);
+        }
+
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate()
+                : startDate.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = endDate.toLocalTime().equals(LocalTime.MAX)
+                ? endDate.toLocalDate()
+                : endDate.toLocalDate().minusDays(1);
+
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return rawCompletedPayments(startDate, endDate);
+        }
+
+        BigDecimal total = nonNull(dailySalesStatsRepository.sumCompletedPaymentsBetween(firstFullDay, lastFullDay));
+        LocalDateTime fullRangeStart = firstFullDay.atStartOfDay();
+        LocalDateTime fullRangeEnd = lastFullDay.plusDays(1).atStartOfDay();
+        if (startDate.isBefore(fullRangeStart)) {
+            total = total.add(rawCompletedPayments(startDate, fullRangeStart.minusNanos(1)));
+        }
+        if (!endDate.isBefore(fullRangeEnd)) {
+            total = total.add(rawCompletedPayments(fullRangeEnd, endDate));
+        }
+        return total;
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesStatsDto> getDailyStats(LocalDate startDate, LocalDate endDate) {
+        return dailySalesStatsRepository.findBetween(startDate, endDate).stream()
+                .map(DailySalesStatsDto::fromEntity)
+                .toList();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void ensureReferenceRows() {
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            try {
+                rowCreator.createStatusRow(status);
+            } catch (DataIntegrityViolationException ignored) {
+                // Created concurrently by another node
+            }
+        }
+        for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+            try {
+                rowCreator.createMethodRow(method);
+            } catch (DataIntegrityViolationException ignored) {
+                // Created concurrently by another node
+            }
+        }
+    }
+
+    // Rollup rows are locked before the source tables are aggregated, so any transition racing
+    // with reconciliation either commits first (and is counted) or waits and applies its delta after.
+    public int reconcile(int days) {
+        int corrected = 0;
+
+        List<OrderStatusStats> statusRows = orderStatusStatsRepository.findAllForUpdate();
+        Map<Object, Object[]> statusTruth = indexByKey(orderRepository.aggregateByStatus());
+        for (OrderStatusStats row : statusRows) {
+            Object[] truth = statusTruth.get(row.getStatus());
+            long count = truth != null ? ((Number) truth[1]).longValue() : 0;
+            BigDecimal amount = truth != null ? nonNull((BigDecimal) truth[2]) : BigDecimal.ZERO;
+            if (row.getOrderCount() != count || row.getTotalAmount().compareTo(amount) != 0) {
+                row.setOrderCount(count);
+                row.setTotalAmount(amount);
+                corrected++;
+            }
+        }
+
+        List<PaymentMethodStats> methodRows = paymentMethodStatsRepository.findAllForUpdate();
+        Map<Object, Object[]> methodTruth = indexByKey(paymentRepository.aggregateCompletedByMethod());
+        for (PaymentMethodStats row : methodRows) {
+            Object[] truth = methodTruth.get(row.getPaymentMethod());
+            long count = truth != null ? ((Number) truth[1]).longValue() : 0;
+            BigDecimal amount = truth != null ? nonNull((BigDecimal) truth[2]) : BigDecimal.ZERO;
+            if (row.getCompletedCount() != count || row.getCompletedAmount().compareTo(amount) != 0) {
+                row.setCompletedCount(count);
+                row.setCompletedAmount(amount);
+                corrected++;
+            }
+        }
+
+        return corrected + reconcileDays(LocalDate.now().minusDays(days), LocalDate.now().plusDays(1));
+    }
+
+    // Rebuilds the daily rows for [since, until) only; the backfill walks old history in chunks with this
+    // so each transaction locks a bounded set of rows
+    public int reconcileDays(LocalDate since, LocalDate until) {
+        int corrected = 0;
+
+        Map<LocalDate, DailySalesStats> dailyRows = new TreeMap<>();
+        dailySalesStatsRepository.findBetweenForUpdate(since, until)
+                .forEach(row -> dailyRows.put(row.getStatDate(), row));
+        Map<Object, Object[]> orderDays = indexByKey(
+                orderRepository.aggregateByCreatedDateBetween(since.atStartOfDay(), until.atStartOfDay()));
+        Map<Object, Object[]> paymentDays = indexByKey(
+                paymentRepository.aggregateCompletedByPaidDateBetween(since.atStartOfDay(), until.atStartOfDay()));
+
+        Set<LocalDate> allDays = new TreeSet<>(dailyRows.keySet());
+        orderDays.keySet().forEach(day -> allDays.add((LocalDate) day));
+        paymentDays.keySet().forEach(day -> allDays.add((LocalDate) day));
+
+        for (LocalDate day : allDays) {
+            Object[] orders = orderDays.get(day);
+            Object[] payments = paymentDays.get(day);
+            long ordersCreated = orders != null ? ((Number) orders[1]).longValue() : 0;
+            BigDecimal ordersAmount = orders != null ? nonNull((BigDecimal) orders[2]) : BigDecimal.ZERO;
+            long paymentsCompleted = payments != null ? ((Number) payments[1]).longValue() : 0;
+            BigDecimal paymentsAmount = payments != null ? nonNull((BigDecimal) payments[2]) : BigDecimal.ZERO;
+
+            DailySalesStats row = dailyRows.get(day);
+            if (row == null) {
+                row = dailySalesStatsRepository.save(new DailySalesStats(day));
+            }
+            if (row.getOrdersCreated() != ordersCreated
+                    || row.getOrdersAmount().compareTo(ordersAmount) != 0
+                    || row.getPaymentsCompleted() != paymentsCompleted
+                    || row.getPaymentsCompletedAmount().compareTo(paymentsAmount) != 0) {
+                row.setOrdersCreated(ordersCreated);
+                row.setOrdersAmount(ordersAmount);
+                row.setPaymentsCompleted(paymentsCompleted);
+                row.setPaymentsCompletedAmount(paymentsAmount);
+                corrected++;
+            }
+        }
+
+        return corrected;
+    }
+
+    public void markHistoryBackfilled() {
+        historyBackfilled = true;
+    }
+
+    // Payments are always paid after their order was created, so this bounds both source tables
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> getEarliestActivityDay() {
+        return Optional.ofNullable(orderRepository.findEarliestCreatedAt()).map(LocalDateTime::toLocalDate);
+    }
+
+    private void applyCompletedPayment(Payment payment, long count, BigDecimal amount) {
+        if (paymentMethodStatsRepository.increment(payment.getPaymentMethod(), count, amount) == 0) {
+            try {
+                rowCreator.createMethodRow(payment.getPaymentMethod());
+            } catch (DataIntegrityViolationException ignored) {
+                // Created concurrently by another node
+            }
+            paymentMethodStatsRepository.increment(payment.getPaymentMethod(), count, amount);
+        }
+
+        LocalDate day = payment.getPaidAt().toLocalDate();
+        if (dailySalesStatsRepository.incrementCompletedPayments(day, count, amount) == 0) {
+            ensureDailyRow(day);
+            dailySalesStatsRepository.incrementCompletedPayments(day, count, amount);
+        }
+    }
+
+    private void incrementStatus(Order.OrderStatus status, long count, BigDecimal amount) {
+        if (orderStatusStatsRepository.increment(status, count, amount) == 0) {
+            try {
+                rowCreator.createStatusRow(status);
+            } catch (DataIntegrityViolationException ignored) {
+                // Created concurrently by another node
+            }
+            orderStatusStatsRepository.increment(status, count, amount);
+        }
+    }
+
+    private void ensureDailyRow(LocalDate day) {
+        try {
+            rowCreator.createDailyRow(day);
+        } catch (DataIntegrityViolationException ignored) {
+            // Created concurrently by another node
+        }
+    }
+
+    private BigDecimal rawCompletedPayments(LocalDateTime startDate, LocalDateTime endDate) {
+        return nonNull(paymentRepository.getTotalCompletedPaymentsByDateRange(startDate, endDate));
+    }
+
+    private static Map<Object, Object[]> indexByKey(List<Object[]> rows) {
+        Map<Object, Object[]> index = new HashMap<>();
+        for (Object[] row : rows) {
+            index.put(row[0], row);
+        }
+        return index;
+    }
+
+    private static BigDecimal nonNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@ConditionalOnProperty(name = "app.orders.stale-reaper.enabled", havingValue = "true", matchIfMissing = true)
+public class StaleOrderReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleOrderReaper.class);
+
+    private final OrderService orderService;
+    private final long maxAgeMinutes;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter cancelledOrders;
+    private final Counter batches;
+    private final Timer batchTimer;
+
+    public StaleOrderReaper(OrderService orderService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.orders.stale-reaper.max-age-minutes:60}") long maxAgeMinutes,
+                            @Value("${app.orders.stale-reaper.batch-size:100}") int batchSize,
+                            @Value("${app.orders.stale-reaper.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.orderService = orderService;
+        this.maxAgeMinutes = maxAgeMinutes;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.cancelledOrders = Counter.builder("orders.stale.reaper.cancelled")
+                .description("Stale PENDING orders cancelled by the reaper")
+                .register(meterRegistry);
+        this.batches = Counter.builder("orders.stale.reaper.batches")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.stale.reaper.batch.duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.stale-reaper.interval-ms:300000}",
+            initialDelayString = "${app.orders.stale-reaper.initial-delay-ms:60000}")
+    public void reapStaleOrders() {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusMinutes(maxAgeMinutes);
+        int total = 0;
+
+        try {
+            // Each batch is its own transaction, so row locks are held only for one bounded batch
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int cancelled = batchTimer.record(() -> orderService.cancelStalePendingOrders(cutoffDate, batchSize));
+                batches.increment();
+                cancelledOrders.increment(cancelled);
+                total += cancelled;
+                if (cancelled < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Stale order reaper stopped after cancelling {} orders", total, ex);
+            return;
+        }
+
+        if (total > 0) {
+            log.info("Stale order reaper cancelled {} PENDING orders created before {}", total, cutoffDate);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.ecommerce.entity.User;
 import com.ecommerce.exception.DuplicateResourceException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.TokenRevocationService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,10 +18,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Transactional(readOnly = true)
@@ -101,13 +105,16 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(request.newPassword()));
+        user.revokeTokens();
         userRepository.save(user);
+        tokenRevocationService.onUserChanged(user);
     }
 
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new ResourceNotFoundException("User", "id", id);
         }
+        tokenRevocationService.onUserDeleted(id);
         userRepository.deleteById(id);
     }
 
@@ -115,8 +122,12 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
 
-        user.setRole(role);
+        if (user.getRole() != role) {
+            user.setRole(role);
+            user.revokeTokens();
+        }
         User updatedUser = userRepository.save(user);
+        tokenRevocationService.onUserChanged(updatedUser);
         return UserDto.fromEntity(updatedUser);
     }
 
@@ -124,8 +135,12 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
 
+        if (user.isEnabled() && !enabled) {
+            user.revokeTokens();
+        }
         user.setEnabled(enabled);
         User updatedUser = userRepository.save(user);
+        tokenRevocationService.onUserChanged(updatedUser);
         return UserDto.fromEntity(updatedUser);
     }
 
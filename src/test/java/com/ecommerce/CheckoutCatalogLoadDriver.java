@@ -0,0 +1,148 @@
+package com.ecommerce;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Not a unit test: drives the catalog and checkout flows against a running instance, for comparing the
+// prod database settings (pool sizing, statement caching, batching) with and without them. That comparison
+// has not been run yet, so the settings have no measured gain. Start the app
+// with the prod profile and RATE_LIMIT_ENABLED=false, then run e.g.
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.CheckoutCatalogLoadDriver \
+//       -Dexec.args="http://localhost:8080 catalog 200 60"
+// Arguments: base URL, flow (catalog or checkout), concurrent clients, seconds (after a 5 second warm-up).
+// The checkout flow logs in as the seeded customer, places an order directly (all clients share one user,
+// so not through its cart) and cancels it again, so product stock is restored and the flow can run indefinitely.
+public class CheckoutCatalogLoadDriver {
+
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String flow = args.length > 1 ? args[1] : "catalog";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 60);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<Long> productIds = findAll(ID, send(httpClient, get(baseUrl + "/api/products?size=50", null)));
+        String token = "checkout".equals(flow) ? login(httpClient, baseUrl) : null;
+
+        long warmUpEnd = System.nanoTime() + WARM_UP.toNanos();
+        long end = warmUpEnd + duration.toNanos();
+
+        List<Future<RequestLoadDriver.Samples>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    RequestLoadDriver.Samples samples = new RequestLoadDriver.Samples();
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        boolean ok;
+                        try {
+                            ok = "checkout".equals(flow)
+                                    ? checkout(httpClient, baseUrl, token, productIds)
+                                    : browse(httpClient, baseUrl, productIds);
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (now >= warmUpEnd) {
+                            samples.add(System.nanoTime() - now, ok);
+                        }
+                    }
+                    return samples;
+                }));
+            }
+        }
+
+        RequestLoadDriver.Samples total = new RequestLoadDriver.Samples();
+        for (Future<RequestLoadDriver.Samples> future : futures) {
+            total.addAll(future.get());
+        }
+        RequestLoadDriver.report(flow + " flow", clients, duration, total);
+    }
+
+    // Listing page, one product and the category tree, as a storefront page view would
+    private static boolean browse(HttpClient httpClient, String baseUrl, List<Long> productIds) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return send(httpClient, get(baseUrl + "/api/products?size=20&page=" + random.nextInt(3), null)) != null
+                && send(httpClient, get(baseUrl + "/api/products/" + pick(productIds), null)) != null
+                && send(httpClient, get(baseUrl + "/api/categories", null)) != null;
+    }
+
+    private static boolean checkout(HttpClient httpClient, String baseUrl, String token,
+                                    List<Long> productIds) throws Exception {
+        long productId = pick(productIds);
+        String item = "{\"productId\":" + productId + ",\"quantity\":1}";
+        String order = send(httpClient, post(baseUrl + "/api/orders", token,
+                "{\"items\":[" + item + "],\"shippingAddress\":\"1 Load Street\"}"));
+        if (order == null) {
+            return false;
+        }
+        Matcher orderId = ID.matcher(order);
+        return orderId.find()
+                && send(httpClient, post(baseUrl + "/api/orders/" + orderId.group(1) + "/cancel", token, "")) != null;
+    }
+
+    private static String login(HttpClient httpClient, String baseUrl) throws Exception {
+        String response = send(httpClient, post(baseUrl + "/api/auth/login", null,
+                "{\"email\":\"customer@ecommerce.com\",\"password\":\"customer123\"}"));
+        Matcher token = TOKEN.matcher(response != null ? response : "");
+        if (!token.find()) {
+            throw new IllegalStateException("Login failed: " + response);
+        }
+        return token.group(1);
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return request(url, token).GET().build();
+    }
+
+    private static HttpRequest post(String url, String token, String json) {
+        return request(url, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest.Builder request(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+    }
+
+    // Returns the body, or null for an error status
+    private static String send(HttpClient httpClient, HttpRequest request) throws Exception {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() < 400 ? response.body() : null;
+    }
+
+    private static List<Long> findAll(Pattern pattern, String body) {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = pattern.matcher(body != null ? body : "");
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No products found");
+        }
+        return ids;
+    }
+
+    private static long pick(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
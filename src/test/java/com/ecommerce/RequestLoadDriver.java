@@ -0,0 +1,119 @@
+package com.ecommerce;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Not a unit test: closed-loop HTTP load against a running instance, reporting throughput and latency
+// percentiles. Compare the two threading modes by starting the app with VIRTUAL_THREADS_ENABLED=false and
+// then =true (and RATE_LIMIT_ENABLED=false, or the limiter is what gets measured), then run e.g.
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.RequestLoadDriver \
+//       -Dexec.args="http://localhost:8080 /api/products?size=20 400 30"
+// Arguments: base URL, path, concurrent clients, seconds (after a 5 second warm-up).
+// The comparison has not been run yet: there are no measured numbers for either mode, so virtual threads
+// stay off by default until they show a gain.
+public class RequestLoadDriver {
+
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String path = args.length > 1 ? args[1] : "/api/products?size=20";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 400;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        long warmUpEnd = System.nanoTime() + WARM_UP.toNanos();
+        long end = warmUpEnd + duration.toNanos();
+
+        List<Future<Samples>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> runClient(httpClient, request, warmUpEnd, end)));
+            }
+        }
+
+        Samples total = new Samples();
+        for (Future<Samples> future : futures) {
+            total.addAll(future.get());
+        }
+        report(path, clients, duration, total);
+    }
+
+    private static Samples runClient(HttpClient httpClient, HttpRequest request, long warmUpEnd, long end) {
+        Samples samples = new Samples();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            boolean ok;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (now >= warmUpEnd) {
+                samples.add(System.nanoTime() - now, ok);
+            }
+        }
+        return samples;
+    }
+
+    static void report(String name, int clients, Duration duration, Samples samples) {
+        long[] latencies = Arrays.copyOf(samples.latencies, samples.count);
+        Arrays.sort(latencies);
+        System.out.printf("%s with %d clients for %ds%n", name, clients, duration.toSeconds());
+        System.out.printf("  requests: %d, errors: %d, throughput: %.1f req/s%n",
+                samples.count, samples.errors, samples.count / (double) duration.toSeconds());
+        System.out.printf("  latency ms: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)] / 1_000_000.0;
+    }
+
+    static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+    }
+}
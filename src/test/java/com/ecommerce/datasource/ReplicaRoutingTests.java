@@ -0,0 +1,99 @@
+package com.ecommerce.datasource;
+
+import com.ecommerce.entity.User;
+import com.ecommerce.security.UserPrincipal;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two in-memory H2 databases stand in for the primary and the replica; each transaction reports which
+// one its connection belongs to
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.lag-check-initial-delay-ms=3600000",
+        "app.orders.stale-reaper.enabled=false",
+        "app.payment.reconcile.enabled=false",
+        "app.outbox.relay.initial-delay-ms=3600000",
+        "app.stats.reconcile.initial-delay-ms=3600000"
+})
+class ReplicaRoutingTests {
+
+    private static final String PRIMARY = "ROUTING_PRIMARY";
+    private static final String REPLICA = "ROUTING_REPLICA";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.check();
+        assertThat(replicaLagMonitor.isAvailable()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaLagMonitor.markUnavailable();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(database(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertThat(database(false)).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void readsStayOnThePrimaryAfterTheUsersOwnWrite() {
+        signIn(1001L);
+        assertThat(database(true)).isEqualTo(REPLICA);
+
+        database(false);
+        assertThat(database(true)).isEqualTo(PRIMARY);
+
+        signIn(1002L);
+        assertThat(database(true)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsUnavailable() {
+        replicaLagMonitor.markUnavailable();
+
+        assertThat(database(true)).isEqualTo(PRIMARY);
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult().toString());
+    }
+
+    private static void signIn(long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user" + userId, "user" + userId + "@example.com",
+                null, User.Role.CUSTOMER, true, 0, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailServiceTests {
+
+    @TempDir
+    Path root;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void resizesToTheNextConfiguredWidth() throws Exception {
+        ThumbnailService service = service(new ThumbnailCache(meterRegistry, root.resolve("thumbnails"), 1 << 20));
+        ImageStorage.StoredImage original = storePng(800, 400);
+
+        try (OpenedImage thumbnail = service.open(original, 200)) {
+            assertThat(thumbnail.image().name()).isEqualTo(original.hash() + "-w256.png");
+            assertThat(thumbnail.image().size()).isEqualTo(Files.size(thumbnail.image().path()));
+            BufferedImage decoded = ImageIO.read(thumbnail.image().path().toFile());
+            assertThat(decoded.getWidth()).isEqualTo(256);
+            assertThat(decoded.getHeight()).isEqualTo(128);
+        }
+    }
+
+    @Test
+    void openThumbnailStaysReadableAfterEviction() throws Exception {
+        ThumbnailCache cache = new ThumbnailCache(meterRegistry, root.resolve("thumbnails"), 1 << 20);
+        ThumbnailService service = service(cache);
+        ImageStorage.StoredImage original = storePng(800, 400);
+
+        try (OpenedImage thumbnail = service.open(original, 128)) {
+            byte[] expected = Files.readAllBytes(thumbnail.image().path());
+            Files.delete(thumbnail.image().path());
+
+            ByteBuffer content = ByteBuffer.allocate((int) thumbnail.image().size());
+            thumbnail.channel().read(content, 0);
+            assertThat(content.array()).isEqualTo(expected);
+        }
+
+        // The next request notices the file is gone and renders it again
+        try (OpenedImage again = service.open(original, 128)) {
+            assertThat(again.image().name()).isEqualTo(original.hash() + "-w128.png");
+        }
+        assertThat(meterRegistry.get("image.thumbnail.render.duration").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void remembersSourcesThatCannotBeDecoded() throws Exception {
+        ThumbnailService service = service(new ThumbnailCache(meterRegistry, root.resolve("thumbnails"), 1 << 20));
+        byte[] truncatedPng = Arrays.copyOf(pngBytes(400, 400), 64);
+        ImageStorage.StoredImage original = new ImageStorage(root.resolve("images"), 50_000_000)
+                .store(new ByteArrayInputStream(truncatedPng));
+
+        for (int i = 0; i < 3; i++) {
+            try (OpenedImage served = service.open(original, 128)) {
+                assertThat(served.image().name()).isEqualTo(original.name());
+            }
+        }
+
+        assertThat(meterRegistry.get("image.thumbnail.render.duration").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("image.thumbnail.requests").tag("result", "undecodable").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void concurrentRequestsForOneVariantShareASingleRender() throws Exception {
+        ThumbnailService service = service(new ThumbnailCache(meterRegistry, root.resolve("thumbnails"), 1 << 20));
+        ImageStorage.StoredImage original = storePng(2000, 2000);
+
+        int callers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ImageStorage.StoredImage>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try (OpenedImage thumbnail = service.open(original, 128)) {
+                        return thumbnail.image();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<ImageStorage.StoredImage> result : results) {
+                assertThat(result.get().name()).isEqualTo(original.hash() + "-w128.png");
+            }
+        }
+
+        double renders = meterRegistry.get("image.thumbnail.render.duration").timer().count();
+        assertThat(renders).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedThumbnailsOverTheCap() {
+        Path directory = root.resolve("thumbnails");
+        ThumbnailCache cache = new ThumbnailCache(meterRegistry, directory, 250);
+
+        cache.put("a.png", new byte[100]);
+        cache.put("b.png", new byte[100]);
+        assertThat(cache.get("a.png")).isPresent();
+        cache.put("c.png", new byte[100]);
+
+        assertThat(cache.get("b.png")).isEmpty();
+        assertThat(Files.exists(directory.resolve("b.png"))).isFalse();
+        assertThat(cache.get("a.png")).isPresent();
+        assertThat(cache.totalBytes()).isEqualTo(200);
+
+        ThumbnailCache reloaded = new ThumbnailCache(meterRegistry, directory, 250);
+        reloaded.loadIndex();
+        assertThat(reloaded.entries()).isEqualTo(2);
+        assertThat(reloaded.totalBytes()).isEqualTo(200);
+    }
+
+    private ThumbnailService service(ThumbnailCache cache) {
+        return new ThumbnailService(cache, meterRegistry, List.of(128, 256, 512), 40_000_000, 2, 8, 30_000);
+    }
+
+    private ImageStorage.StoredImage storePng(int width, int height) throws Exception {
+        return new ImageStorage(root.resolve("images"), 50_000_000)
+                .store(new ByteArrayInputStream(pngBytes(width, height)));
+    }
+
+    private static byte[] pngBytes(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x += 10) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0xFF8800);
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+}
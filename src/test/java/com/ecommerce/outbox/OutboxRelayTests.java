@@ -0,0 +1,98 @@
+package com.ecommerce.outbox;
+
+import com.ecommerce.entity.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.outbox.sink=memory",
+        "app.orders.stale-reaper.enabled=false",
+        "app.payment.reconcile.enabled=false",
+        "app.outbox.relay.initial-delay-ms=3600000",
+        "app.stats.reconcile.initial-delay-ms=3600000"
+})
+class OutboxRelayTests {
+
+    private static final long PAYMENT_ID = 4242L;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private InMemoryOutboxEventSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        relay.relayPendingEvents();
+        sink.clear();
+    }
+
+    @Test
+    void holdsBackLaterEventsUntilAnEarlierIdCommits() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // The completion takes the lower id but commits after the refund
+        CompletableFuture<Void> slowTransaction = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    saveEvent(OutboxEvent.EventType.PAYMENT_COMPLETED);
+                    inserted.countDown();
+                    await(commit);
+                }));
+        try {
+            assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+            transactionTemplate.executeWithoutResult(status -> saveEvent(OutboxEvent.EventType.PAYMENT_REFUNDED));
+
+            relay.relayPendingEvents();
+            assertThat(publishedForPayment()).isEmpty();
+        } finally {
+            commit.countDown();
+        }
+        slowTransaction.get(10, TimeUnit.SECONDS);
+
+        relay.relayPendingEvents();
+        assertThat(publishedForPayment()).containsExactly(
+                OutboxEvent.EventType.PAYMENT_COMPLETED, OutboxEvent.EventType.PAYMENT_REFUNDED);
+    }
+
+    private void saveEvent(OutboxEvent.EventType type) {
+        outboxEventRepository.saveAndFlush(new OutboxEvent("Payment", PAYMENT_ID, type, "{}"));
+    }
+
+    private List<OutboxEvent.EventType> publishedForPayment() {
+        return sink.getPublishedEvents().stream()
+                .filter(event -> event.getAggregateId() == PAYMENT_ID)
+                .map(OutboxEvent::getEventType)
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+    @Test
+    void opensAfterConsecutiveFailuresReachTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofMinutes(1));
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void grantsASingleTrialCallOnceTheOpenDurationHasPassed() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void closesWhenTheTrialCallSucceeds() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.onFailure(breaker.tryAcquirePermission());
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+
+        breaker.onSuccess(trial);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void reopensWhenTheTrialCallFails() {
+        CircuitBreaker breaker = new CircuitBreaker(5, Duration.ofMillis(200));
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure(breaker.tryAcquirePermission());
+        }
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        awaitOpenDuration();
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+        assertThat(trial).isNotNull();
+        breaker.onFailure(trial);
+
+        // A single failed trial reopens, and the open duration starts over
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void failureOfACallStartedBeforeTheCircuitOpenedDoesNotRestartTheOpenPeriod() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(200));
+        CircuitBreaker.Permission first = breaker.tryAcquirePermission();
+        CircuitBreaker.Permission slow = breaker.tryAcquirePermission();
+        breaker.onFailure(first);
+
+        awaitOpenDuration();
+        breaker.onFailure(slow);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void successOfACallStartedBeforeTheCircuitOpenedKeepsItOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+        CircuitBreaker.Permission first = breaker.tryAcquirePermission();
+        CircuitBreaker.Permission slow = breaker.tryAcquirePermission();
+        breaker.onFailure(first);
+
+        breaker.onSuccess(slow);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void onlyTheTrialCallDecidesWhileHalfOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        CircuitBreaker.Permission slow = breaker.tryAcquirePermission();
+        breaker.onFailure(breaker.tryAcquirePermission());
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+
+        breaker.onFailure(slow);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(trial);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void releasedTrialPermissionReturnsToOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+        breaker.onFailure(breaker.tryAcquirePermission());
+        CircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+
+        breaker.releasePermission(trial);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void releasingPermissionWhileClosedKeepsItClosed() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+
+        breaker.releasePermission(breaker.tryAcquirePermission());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static void awaitOpenDuration() {
+        try {
+            Thread.sleep(250);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.payment;
+
+import com.ecommerce.entity.Payment;
+import com.ecommerce.exception.PaymentGatewayUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedPaymentGatewayTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingGateway delegate = new BlockingGateway();
+    private GuardedPaymentGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        delegate.release.countDown();
+        if (gateway != null) {
+            gateway.shutdown();
+        }
+    }
+
+    @Test
+    void approvesWhenTheProviderAnswersInTime() {
+        delegate.release.countDown();
+        gateway = guarded(1, Duration.ofSeconds(5), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        PaymentGateway.ChargeResult result = gateway.charge(request("tx-1"));
+
+        assertThat(result.outcome()).isEqualTo(PaymentGateway.Outcome.APPROVED);
+        assertThat(gateway.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void rejectsCallsOverTheBulkheadLimit() throws Exception {
+        gateway = guarded(1, Duration.ofSeconds(5), new CircuitBreaker(3, Duration.ofMinutes(1)));
+        CompletableFuture<PaymentGateway.ChargeResult> first =
+                CompletableFuture.supplyAsync(() -> gateway.charge(request("tx-1")));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> gateway.charge(request("tx-2")))
+                .isInstanceOf(PaymentGatewayUnavailableException.class)
+                .hasMessageContaining("too many concurrent calls");
+        assertThat(meterRegistry.get("payment.gateway.rejected").tag("reason", "bulkhead_full").counter().count())
+                .isEqualTo(1);
+        // Rejected locally, so the provider is not blamed for it
+        assertThat(gateway.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        delegate.release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).success()).isTrue();
+        assertThat(delegate.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutLeavesTheOutcomeUnknownAndCountsAsAFailure() {
+        gateway = guarded(1, Duration.ofMillis(50), new CircuitBreaker(1, Duration.ofMinutes(1)));
+
+        PaymentGateway.ChargeResult result = gateway.charge(request("tx-1"));
+
+        assertThat(result.outcome()).isEqualTo(PaymentGateway.Outcome.UNKNOWN);
+        assertThat(result.success()).isFalse();
+        assertThat(result.failureReason()).isEqualTo("Payment provider timed out");
+        assertThat(gateway.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("payment.gateway.latency").tag("outcome", "timeout").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void failsFastWhileTheCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ofMinutes(1));
+        circuitBreaker.onFailure(circuitBreaker.tryAcquirePermission());
+        gateway = guarded(1, Duration.ofSeconds(5), circuitBreaker);
+
+        assertThatThrownBy(() -> gateway.charge(request("tx-1")))
+                .isInstanceOf(PaymentGatewayUnavailableException.class)
+                .hasMessageContaining("circuit breaker is open");
+        assertThat(delegate.calls.get()).isZero();
+    }
+
+    @Test
+    void voidTimeoutReportsNotVoided() {
+        gateway = guarded(1, Duration.ofMillis(50), new CircuitBreaker(3, Duration.ofMinutes(1)));
+
+        assertThat(gateway.voidCharge("tx-1", "ref-1")).isFalse();
+    }
+
+    private GuardedPaymentGateway guarded(int maxConcurrentCalls, Duration timeout, CircuitBreaker circuitBreaker) {
+        return new GuardedPaymentGateway(delegate, maxConcurrentCalls, timeout, circuitBreaker, meterRegistry);
+    }
+
+    private static PaymentGateway.ChargeRequest request(String transactionId) {
+        return new PaymentGateway.ChargeRequest(transactionId, new BigDecimal("10.00"), "USD",
+                Payment.PaymentMethod.CREDIT_CARD, null);
+    }
+
+    // Blocks every call until released, standing in for a slow provider
+    private static class BlockingGateway implements PaymentGateway {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String getProvider() {
+            return "blocking";
+        }
+
+        @Override
+        public ChargeResult charge(ChargeRequest request) {
+            calls.incrementAndGet();
+            started.countDown();
+            await();
+            return ChargeResult.approved("ref-" + request.transactionId());
+        }
+
+        @Override
+        public ChargeResult lookup(String transactionId) {
+            await();
+            return ChargeResult.declined("Unknown transaction");
+        }
+
+        @Override
+        public boolean voidCharge(String transactionId, String providerReference) {
+            await();
+            return true;
+        }
+
+        @Override
+        public ChargeResult refund(String transactionId, BigDecimal amount) {
+            await();
+            return ChargeResult.approved("refund-" + transactionId);
+        }
+
+        private void await() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimiterTests {
+
+    private static final RateLimiter.Limit THREE_PER_SECOND = new RateLimiter.Limit(3, Duration.ofSeconds(1));
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final InMemoryRateLimiter rateLimiter = new InMemoryRateLimiter(100, clock::get);
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).remaining()).isEqualTo(2);
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).remaining()).isEqualTo(1);
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).remaining()).isZero();
+
+        RateLimiter.Decision rejected = rateLimiter.tryConsume("a", THREE_PER_SECOND);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.limit()).isEqualTo(3);
+        assertThat(rejected.retryAfter()).isPositive();
+        assertThat(rejected.resetAfter()).isEqualTo(Duration.ofSeconds(1).minusNanos(1));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryConsume("a", THREE_PER_SECOND);
+        }
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).allowed()).isFalse();
+
+        clock.addAndGet(Duration.ofMillis(334).toNanos());
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).allowed()).isTrue();
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).allowed()).isFalse();
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryConsume("a", THREE_PER_SECOND);
+        }
+
+        assertThat(rateLimiter.tryConsume("a", THREE_PER_SECOND).allowed()).isFalse();
+        assertThat(rateLimiter.tryConsume("b", THREE_PER_SECOND).allowed()).isTrue();
+    }
+
+    @Test
+    void dropsIdleBucketsAndStaysBounded() {
+        InMemoryRateLimiter bounded = new InMemoryRateLimiter(10, clock::get);
+        for (int i = 0; i < 25; i++) {
+            bounded.tryConsume("key-" + i, THREE_PER_SECOND);
+        }
+        assertThat(bounded.size()).isLessThanOrEqualTo(10);
+
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        bounded.evictIdle();
+        assertThat(bounded.size()).isZero();
+    }
+}
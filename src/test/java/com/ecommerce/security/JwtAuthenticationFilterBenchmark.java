@@ -0,0 +1,101 @@
+package com.ecommerce.security;
+
+import com.ecommerce.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Not a unit test: run with
+//   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ecommerce.security.JwtAuthenticationFilterBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-token-generation-at-least-256-bits";
+
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter cachedFilter;
+    private String token;
+    private FilterChain filterChain;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3_600_000);
+
+        UserPrincipal principal = new UserPrincipal(1L, "bench", "bench@example.com", "n/a",
+                User.Role.CUSTOMER, true, 0, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        token = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(principal, null));
+
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(principal);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        filter = new JwtAuthenticationFilter(tokenProvider, userDetailsService, tokenRevocationService,
+                new VerifiedTokenCache(0), true);
+        cachedFilter = new JwtAuthenticationFilter(tokenProvider, userDetailsService, tokenRevocationService,
+                new VerifiedTokenCache(1000), true);
+        filterChain = (request, response) -> { };
+    }
+
+    // Baseline: what the filter used to do, deriving the key and building a parser for each of two parses
+    @Benchmark
+    public String parseTwiceWithFreshParser() {
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token);
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public Claims parseOnceWithCachedParser() {
+        return tokenProvider.parseClaims(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Object authenticationFilter() throws Exception {
+        return runFilter(filter);
+    }
+
+    @Benchmark
+    public Object authenticationFilterWithVerifiedTokenCache() throws Exception {
+        return runFilter(cachedFilter);
+    }
+
+    private Object runFilter(JwtAuthenticationFilter jwtFilter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/my-orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderItemDto;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrowPartWriterTests {
+
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    void writesTypedNullableColumnsThatReadBack() throws Exception {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_456_000);
+        List<OrderItemDto.ExportRow> rows = List.of(
+                new OrderItemDto.ExportRow(1L, 10L, 100L, "Kettle", "KT-1", 2,
+                        new BigDecimal("19.99"), null, new BigDecimal("39.98"), updatedAt),
+                new OrderItemDto.ExportRow(2L, 10L, null, "Gift card", null, 1,
+                        new BigDecimal("50"), BigDecimal.ZERO, new BigDecimal("50.00"), updatedAt));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowPartWriter(allocator).write(rows, OrderItemDto.ExportRow.class, out);
+
+        try (ArrowFileReader reader = new ArrowFileReader(
+                new ByteArrayReadableSeekableByteChannel(out.toByteArray()), allocator)) {
+            assertThat(reader.loadNextBatch()).isTrue();
+            VectorSchemaRoot batch = reader.getVectorSchemaRoot();
+
+            assertThat(batch.getRowCount()).isEqualTo(2);
+            assertThat(batch.getSchema().findField("unitPrice").getType())
+                    .isEqualTo(new ArrowType.Decimal(12, 2, 128));
+            assertThat(((BigIntVector) batch.getVector("id")).get(1)).isEqualTo(2L);
+            assertThat(((BigIntVector) batch.getVector("productId")).isNull(1)).isTrue();
+            assertThat(((VarCharVector) batch.getVector("productName")).getObject(1).toString())
+                    .isEqualTo("Gift card");
+            assertThat(((VarCharVector) batch.getVector("productSku")).isNull(1)).isTrue();
+            assertThat(((IntVector) batch.getVector("quantity")).get(0)).isEqualTo(2);
+            assertThat(((DecimalVector) batch.getVector("unitPrice")).getObject(1)).isEqualTo(new BigDecimal("50.00"));
+            assertThat(((DecimalVector) batch.getVector("discountAmount")).isNull(0)).isTrue();
+            assertThat(((TimeStampMicroVector) batch.getVector("orderUpdatedAt")).get(0))
+                    .isEqualTo(updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + 123_456);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.OrderDto;
+import com.ecommerce.dto.PageResponse;
+import com.ecommerce.entity.*;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.orders.stale-reaper.enabled=false",
+        "app.outbox.relay.initial-delay-ms=3600000",
+        "app.stats.reconcile.initial-delay-ms=3600000"
+})
+class OrderQueryCountTests {
+
+    private static final int ORDER_COUNT = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User customer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        customer = userRepository.findByEmail("customer@ecommerce.com").orElseThrow();
+        List<Product> products = productRepository.findAll();
+
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = new Order(customer);
+            order.setShippingAddress("1 Test Street");
+            order.addOrderItem(new OrderItem(order, products.get(i % products.size()), 1));
+            order.addOrderItem(new OrderItem(order, products.get((i + 1) % products.size()), 2));
+            order.calculateTotals();
+            if (i % 2 == 0) {
+                order.setPayment(new Payment(order, order.getTotalAmount(), Payment.PaymentMethod.CREDIT_CARD));
+            }
+            orderRepository.save(order);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllOrdersDoesNotIssueQueriesPerOrder() {
+        PageResponse<OrderDto> page = orderService.getAllOrders(firstPage());
+
+        assertThat(page.content()).hasSize(ORDER_COUNT);
+        assertListQueryCount();
+    }
+
+    @Test
+    void getOrdersByStatusDoesNotIssueQueriesPerOrder() {
+        PageResponse<OrderDto> page = orderService.getOrdersByStatus(Order.OrderStatus.PENDING, firstPage());
+
+        assertThat(page.content()).hasSize(ORDER_COUNT);
+        assertListQueryCount();
+    }
+
+    @Test
+    void getOrdersByUserIdDoesNotIssueQueriesPerOrder() {
+        PageResponse<OrderDto> page = orderService.getOrdersByUserId(customer.getId(), firstPage());
+
+        assertThat(page.content()).hasSize(ORDER_COUNT);
+        assertListQueryCount();
+    }
+
+    @Test
+    void getOrderByIdLoadsDetailsInOneQuery() {
+        Long orderId = orderRepository.findAll().getFirst().getId();
+        statistics.clear();
+
+        OrderDto order = orderService.getOrderById(orderId);
+
+        assertThat(order.orderItems()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private PageRequest firstPage() {
+        return PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    // One page query (orders + user + payment) and one batch fetch of order items
+    private void assertListQueryCount() {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.PageResponse;
+import com.ecommerce.dto.ProductDto;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.orders.stale-reaper.enabled=false",
+        "app.outbox.relay.initial-delay-ms=3600000",
+        "app.stats.reconcile.initial-delay-ms=3600000"
+})
+class ProductQueryCountTests {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category category;
+    private List<Product> products;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(new Category("Query Count", "Products for query count tests"));
+
+        products = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Product product = new Product("QueryCount Widget " + i, "Widget " + i, new BigDecimal("9.99"), 10);
+            product.setSku("QC-" + i);
+            product.setCategory(category);
+            product.setAdditionalImages(List.of("/images/qc-" + i + "-1.jpg", "/images/qc-" + i + "-2.jpg"));
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+
+        // Measure against the database, not against entities and collections left in the second-level cache
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+        categoryRepository.delete(category);
+    }
+
+    @Test
+    void getAllProductsDoesNotIssueQueriesPerProduct() {
+        PageResponse<ProductDto> page = productService.getAllProducts(firstPage());
+
+        assertThat(page.content()).hasSize(PAGE_SIZE);
+        assertPageQueryCount();
+    }
+
+    @Test
+    void getActiveProductsDoesNotIssueQueriesPerProduct() {
+        PageResponse<ProductDto> page = productService.getActiveProducts(firstPage());
+
+        assertThat(page.content()).hasSize(PAGE_SIZE);
+        assertPageQueryCount();
+    }
+
+    @Test
+    void getProductsByCategoryDoesNotIssueQueriesPerProduct() {
+        PageResponse<ProductDto> page = productService.getProductsByCategory(category.getId(), firstPage());
+
+        assertThat(page.content()).hasSize(PAGE_SIZE)
+                .allSatisfy(product -> assertThat(product.categoryName()).isEqualTo("Query Count"));
+        assertPageQueryCount();
+    }
+
+    @Test
+    void searchProductsDoesNotIssueQueriesPerProduct() {
+        PageResponse<ProductDto> page = productService.searchProducts("QueryCount", firstPage());
+
+        assertThat(page.content()).hasSize(PAGE_SIZE)
+                .allSatisfy(product -> assertThat(product.additionalImages()).hasSize(2));
+        assertPageQueryCount();
+    }
+
+    private PageRequest firstPage() {
+        return PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    // One page query (products + category), one count query for the full page and one batch fetch of images
+    private void assertPageQueryCount() {
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}